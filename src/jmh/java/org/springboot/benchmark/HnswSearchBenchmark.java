@@ -0,0 +1,108 @@
+package org.springboot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springboot.utility.HnswIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the embedded HNSW index against a brute-force scan of the same vectors. The {@code found} and
+ * {@code expected} counters of {@link Recall} give recall@10 of each HNSW run as found / expected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HnswSearchBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 256;
+
+    @Param({"10000"})
+    public int vectors;
+
+    @Param({"256"})
+    public int dimensions;
+
+    @Param({"50", "100", "200"})
+    public int ef;
+
+    private Path directory;
+    private HnswIndex index;
+    private float[][] queries;
+    private List<Set<Long>> exactResults;
+    private int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Recall {
+        public long found;
+        public long expected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        directory = Files.createTempDirectory("hnsw-benchmark");
+        index = HnswIndex.open(directory, dimensions, 16, 200, vectors);
+        for (int i = 0; i < vectors; i++) {
+            index.add(i, randomVector(random));
+        }
+
+        queries = new float[QUERIES][];
+        exactResults = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = randomVector(random);
+            Set<Long> exact = new HashSet<>();
+            index.exactSearch(queries[i], K).forEach(result -> exact.add(result.id()));
+            exactResults.add(exact);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<HnswIndex.Result> hnsw(Recall recall) {
+        int query = next++ & (QUERIES - 1);
+        List<HnswIndex.Result> results = index.search(queries[query], K, ef);
+
+        Set<Long> exact = exactResults.get(query);
+        for (HnswIndex.Result result : results) {
+            if (exact.contains(result.id())) {
+                recall.found++;
+            }
+        }
+        recall.expected += K;
+        return results;
+    }
+
+    @Benchmark
+    public List<HnswIndex.Result> bruteForce() {
+        return index.exactSearch(queries[next++ & (QUERIES - 1)], K);
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,42 @@
+package org.springboot.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springboot.generator.EANGenerator;
+import org.springboot.generator.MyUuidGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID generation on the write path: EANs for new products and UUIDs for orders. The contended variants run four
+ * threads, which is where a shared random source shows up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Benchmark
+    public String ean13() {
+        return EANGenerator.generateRandomEAN13();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String ean13Contended() {
+        return EANGenerator.generateRandomEAN13();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return MyUuidGenerator.generateUuid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidContended() {
+        return MyUuidGenerator.generateUuid();
+    }
+}
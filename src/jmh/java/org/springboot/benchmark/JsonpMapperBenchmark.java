@@ -0,0 +1,93 @@
+package org.springboot.benchmark;
+
+import co.elastic.clients.json.JsonpMapper;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import org.openjdk.jmh.annotations.*;
+import org.springboot.config.GetESClient;
+import org.springboot.model.CustomerInfo;
+import org.springboot.model.Order;
+import org.springboot.model.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of the indexed documents through the {@code JacksonJsonpMapper} that
+ * {@link GetESClient} gives the Elasticsearch client, i.e. the per-document cost of every index, get and search hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonpMapperBenchmark {
+
+    @Param({"product", "order", "customer"})
+    public String document;
+
+    private final JsonpMapper mapper = GetESClient.jsonpMapper();
+    private Object value;
+    private Class<?> type;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        switch (document) {
+            case "product" -> {
+                Product product = new Product();
+                product.setEan("4006381333931");
+                product.setName("Trail running shoe");
+                product.setDescription("Lightweight trail running shoe with a grippy outsole and a breathable mesh upper.");
+                product.setPrice(89.99);
+                product.setCategory("shoes");
+                product.setAvailable(42);
+                product.setSold(7);
+                value = product;
+                type = Product.class;
+            }
+            case "order" -> {
+                List<String> eans = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    eans.add(String.valueOf(4_006_381_333_931L + i));
+                }
+                value = new Order("5f0c6a1e-8f5b-4c39-9a51-0c9b8d1e2f3a", "c-1024", 899.90, eans);
+                type = Order.class;
+            }
+            case "customer" -> {
+                value = CustomerInfo.builder()
+                        .customerId("c-1024")
+                        .firstName("Jana")
+                        .lastName("Novak")
+                        .email("jana.novak@example.com")
+                        .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Y5Z1Z2Z3Z4Z5Z6Z7Z8Z9Za")
+                        .role("USER")
+                        .orderIds(List.of("o-1", "o-2", "o-3"))
+                        .build();
+                type = CustomerInfo.class;
+            }
+            default -> throw new IllegalArgumentException("Unknown document " + document);
+        }
+        json = serialize();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+            mapper.serialize(value, generator);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        try (JsonParser parser = mapper.jsonProvider().createParser(new ByteArrayInputStream(json))) {
+            return mapper.deserialize(parser, type);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.springboot.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springboot.config.GetESClient;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.config.properties.SearchCacheProperties;
+import org.springboot.config.properties.VectorOutboxProperties;
+import org.springboot.dto.OrderDto;
+import org.springboot.exception.ProductNotFoundException;
+import org.springboot.model.CustomerInfo;
+import org.springboot.model.Order;
+import org.springboot.model.Product;
+import org.springboot.service.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order, product and customer service logic on top of {@link InMemoryElasticsearchTransport}, so no cluster is
+ * needed. With zero latency the score is the services' own cost (request building, JSON mapping, result handling);
+ * with latency it shows how many sequential round trips each call makes. The data is reset every iteration, so
+ * customers' order lists do not keep growing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int PRODUCTS = 100;
+
+    @Param({"0", "1"})
+    private int latencyMillis;
+
+    private ProductServiceImpl productService;
+    private OrderServiceImpl orderService;
+    private final List<String> customerIds = new ArrayList<>();
+    private final List<String> productEans = new ArrayList<>();
+    private String orderId;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws ProductNotFoundException {
+        InMemoryElasticsearchTransport transport = new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+        ElasticsearchClient client = new ElasticsearchClient(transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        PaginationProperties paginationProperties = new PaginationProperties();
+
+        DocumentNearCache nearCache = new DocumentNearCache(new NearCacheProperties(), objectMapper, meterRegistry);
+        ElasticsearchServiceImpl elasticsearchService = new ElasticsearchServiceImpl(client, new ElasticsearchAsyncClient(transport),
+                paginationProperties, nearCache, objectMapper, meterRegistry);
+        VectorOutboxServiceImpl vectorOutboxService = new VectorOutboxServiceImpl(client, elasticsearchService, null, null,
+                new VectorOutboxProperties(), paginationProperties);
+        productService = new ProductServiceImpl(client, vectorOutboxService, new ProductSearchCache(new SearchCacheProperties(), meterRegistry),
+                nearCache);
+        CustomerInfoServiceImpl customerService = new CustomerInfoServiceImpl(client, elasticsearchService, nearCache);
+        orderService = new OrderServiceImpl(client, productService, elasticsearchService, customerService, nearCache, meterRegistry);
+
+        customerIds.clear();
+        productEans.clear();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Benchmark product " + i);
+            product.setPrice(10.0 + i);
+            product.setCategory("benchmark");
+            product.setAvailable(1_000_000_000);
+            productEans.add(productService.addProduct(product).getEan());
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            CustomerInfo customer = CustomerInfo.builder()
+                    .firstName("Customer")
+                    .lastName(String.valueOf(i))
+                    .email("customer" + i + "@example.com")
+                    .build();
+            customerIds.add(customerService.saveCustomer(customer).getCustomerId());
+        }
+        orderId = orderService.addOrder(customerIds.get(0), productEans.subList(0, 3)).getOrderId();
+
+        // Latency only applies to the measured calls, not to the seeding above
+        transport.setLatency(Duration.ofMillis(latencyMillis));
+    }
+
+    @Benchmark
+    public Order addOrder() throws ProductNotFoundException {
+        int position = next++;
+        return orderService.addOrder(customerIds.get(position % CUSTOMERS), List.of(
+                productEans.get(position % PRODUCTS),
+                productEans.get((position + 1) % PRODUCTS),
+                productEans.get((position + 2) % PRODUCTS)));
+    }
+
+    @Benchmark
+    public OrderDto getOrderWithProducts() {
+        return orderService.getOrderWithProducts(orderId);
+    }
+
+    @Benchmark
+    public Product soldProduct() throws ProductNotFoundException {
+        return productService.soldProduct(productEans.get(next++ % PRODUCTS));
+    }
+}
@@ -0,0 +1,126 @@
+package org.springboot.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qdrant.client.grpc.Points.Filter;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import io.qdrant.client.grpc.Points.SearchResponse;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static io.qdrant.client.ConditionFactory.matchKeyword;
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static io.qdrant.client.VectorsFactory.vectors;
+import static io.qdrant.client.WithPayloadSelectorFactory.enable;
+
+/**
+ * Compares the wire encoding of the REST (JSON) and gRPC (protobuf) Qdrant paths: building an upsert body
+ * for 1536-dimensional points, building a search request, and decoding a search response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QdrantEncodingBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+    private static final int SEARCH_RESULTS = 50;
+
+    @Param({"1", "100"})
+    public int points;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long[] ids;
+    private float[][] embeddings;
+    private byte[] restSearchResponse;
+    private byte[] grpcSearchResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        ids = new long[points];
+        embeddings = new float[points][DIMENSIONS];
+        for (int i = 0; i < points; i++) {
+            ids[i] = 4_000_000_000_000L + i;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                embeddings[i][d] = random.nextFloat() * 2 - 1;
+            }
+        }
+
+        List<Map<String, Object>> restResults = new ArrayList<>();
+        SearchResponse.Builder grpcResults = SearchResponse.newBuilder();
+        for (int i = 0; i < SEARCH_RESULTS; i++) {
+            float score = 1f - i / 100f;
+            restResults.add(Map.of("id", 4_000_000_000_000L + i, "version", 1, "score", score));
+            grpcResults.addResult(ScoredPoint.newBuilder().setId(id(4_000_000_000_000L + i)).setVersion(1).setScore(score));
+        }
+        restSearchResponse = objectMapper.writeValueAsBytes(Map.of("result", restResults, "status", "ok", "time", 0.001));
+        grpcSearchResponse = grpcResults.build().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] restEncodeUpsert() throws Exception {
+        List<Map<String, Object>> body = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            body.add(Map.of(
+                    "id", ids[i],
+                    "vector", embeddings[i],
+                    "payload", Map.of("text", "description", "metadata", Map.of("source", "user"))));
+        }
+        return objectMapper.writeValueAsBytes(Map.of("points", body));
+    }
+
+    @Benchmark
+    public byte[] grpcEncodeUpsert() {
+        UpsertPoints.Builder request = UpsertPoints.newBuilder().setCollectionName("products");
+        for (int i = 0; i < points; i++) {
+            request.addPoints(PointStruct.newBuilder()
+                    .setId(id(ids[i]))
+                    .setVectors(vectors(embeddings[i]))
+                    .putPayload("text", value("description"))
+                    .putPayload("metadata", value(Map.of("source", value("user")))));
+        }
+        return request.build().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] restEncodeSearch() throws Exception {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "vector", embeddings[0],
+                "limit", SEARCH_RESULTS,
+                "with_payload", false,
+                "filter", Map.of("must", List.of(Map.of("key", "category", "match", Map.of("value", "shoes"))))));
+    }
+
+    @Benchmark
+    public byte[] grpcEncodeSearch() {
+        SearchPoints.Builder request = SearchPoints.newBuilder()
+                .setCollectionName("products")
+                .setLimit(SEARCH_RESULTS)
+                .setWithPayload(enable(false))
+                .setFilter(Filter.newBuilder().addMust(matchKeyword("category", "shoes")));
+        for (float component : embeddings[0]) {
+            request.addVector(component);
+        }
+        return request.build().toByteArray();
+    }
+
+    @Benchmark
+    public Map<String, Object> restDecodeSearch() throws Exception {
+        return objectMapper.readValue(restSearchResponse, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public SearchResponse grpcDecodeSearch() throws Exception {
+        return SearchResponse.parseFrom(grpcSearchResponse);
+    }
+}
@@ -0,0 +1,54 @@
+package org.springboot.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Latency of a stubbed downstream: a fixed base plus a uniformly distributed jitter, written as {@code "20ms"} or
+ * {@code "150ms+100ms"}. Samples come from a seeded random, so two runs with the same settings wait the same way.
+ */
+public final class LatencyProfile implements Supplier<Duration> {
+
+    private final Duration base;
+    private final Duration jitter;
+    private final Random random;
+
+    public LatencyProfile(Duration base, Duration jitter, long seed) {
+        if (base.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("Latency must not be negative");
+        }
+        this.base = base;
+        this.jitter = jitter;
+        this.random = new Random(seed);
+    }
+
+    public static LatencyProfile parse(String spec, long seed) {
+        String[] parts = spec.strip().split("\\+", 2);
+        Duration base = DurationStyle.detectAndParse(parts[0].strip());
+        Duration jitter = parts.length > 1 ? DurationStyle.detectAndParse(parts[1].strip()) : Duration.ZERO;
+        return new LatencyProfile(base, jitter, seed);
+    }
+
+    @Override
+    public Duration get() {
+        if (jitter.isZero()) {
+            return base;
+        }
+        return base.plusNanos((long) (random.nextDouble() * jitter.toNanos()));
+    }
+
+    public void pause() throws InterruptedException {
+        Duration delay = get();
+        if (!delay.isZero()) {
+            Thread.sleep(delay);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return jitter.isZero() ? base.toString() : base + "+" + jitter;
+    }
+}
@@ -0,0 +1,99 @@
+package org.springboot.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule at the target rate, whether or not earlier ones
+ * have completed, each on its own virtual thread. Latency is measured from the scheduled start, so a stalled server
+ * shows up as queueing delay in the percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+public class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public record Scenario(String name, int weight, Function<Random, HttpRequest.Builder> request) {
+    }
+
+    private final List<Scenario> scenarios;
+    private final int totalWeight;
+    private final Random random;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    public LoadDriver(List<Scenario> scenarios, long seed) {
+        this.scenarios = scenarios;
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        this.random = new Random(seed);
+    }
+
+    public LoadTestReport run(double rps, Duration warmup, Duration duration) {
+        LoadTestReport report = new LoadTestReport(scenarios.stream().map(Scenario::name).toList(), duration);
+        double interval = 1e9 / rps;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        logger.info("Warming up for {}, then measuring for {} at {} rps", warmup, duration, rps);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + (long) (i * interval);
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                // Scenarios and their parameters are drawn on this thread only, so the request mix is reproducible
+                Scenario scenario = pick();
+                HttpRequest request = scenario.request().apply(random).timeout(REQUEST_TIMEOUT).build();
+                boolean measured = scheduled >= measureFrom;
+                executor.execute(() -> send(scenario, request, scheduled, measured ? report : null));
+            }
+            logger.info("Schedule done, waiting for requests still in flight");
+        }
+        return report;
+    }
+
+    private Scenario pick() {
+        int ticket = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Scenario weights must be positive");
+    }
+
+    private void send(Scenario scenario, HttpRequest request, long scheduled, LoadTestReport report) {
+        int status = 0;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            logger.debug("{} failed: {}", scenario.name(), e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (report != null) {
+            report.record(scenario.name(), System.nanoTime() - scheduled, status);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.springboot.loadtest;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.springboot.config.GetESClient;
+import org.springboot.service.InMemoryElasticsearchTransport;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+// Elasticsearch stand-in and open security for the load test; OpenAI and Qdrant are pointed at the stubs by properties
+@Configuration
+@Profile("loadtest")
+@EnableWebSecurity
+public class LoadTestConfig {
+
+    @Bean
+    public InMemoryElasticsearchTransport inMemoryElasticsearchTransport() {
+        return new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+    }
+
+    // Still wrapped by ElasticsearchLimiterPostProcessor, so the adaptive limit is part of what gets measured
+    @Bean
+    public ElasticsearchClient elasticsearchClient(InMemoryElasticsearchTransport transport) {
+        return new ElasticsearchClient(transport);
+    }
+
+    @Bean
+    public SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+}
@@ -0,0 +1,114 @@
+package org.springboot.loadtest;
+
+import org.springboot.model.CustomerInfo;
+import org.springboot.model.Order;
+import org.springboot.model.Product;
+import org.springboot.service.InMemoryElasticsearchTransport;
+import org.springboot.utility.AppConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded catalogue, customers and one order per customer, written straight into the Elasticsearch stand-in and the
+ * Qdrant stub so the run starts warm and no seeding traffic ends up in the measurements. Names and descriptions are
+ * drawn from a small vocabulary, which makes hybrid search queries built from the same words hit on both sides.
+ */
+public final class LoadTestData {
+
+    public static final List<String> CATEGORIES = List.of("electronics", "kitchen", "garden", "toys", "books", "sports");
+
+    public static final List<String> WORDS = List.of(
+            "wireless", "compact", "steel", "wooden", "portable", "smart", "classic", "solar", "ceramic", "waterproof",
+            "lamp", "kettle", "speaker", "chair", "drill", "blender", "tent", "puzzle", "racket", "novel",
+            "charger", "bottle", "helmet", "camera", "shovel", "mixer", "backpack", "clock", "heater", "keyboard");
+
+    private static final long FIRST_EAN = 2_000_000_000_000L;
+
+    private final List<String> productEans = new ArrayList<>();
+    private final List<String> customerIds = new ArrayList<>();
+    private final List<String> orderIds = new ArrayList<>();
+
+    private LoadTestData() {
+    }
+
+    public static LoadTestData seed(InMemoryElasticsearchTransport transport, QdrantRestStub qdrant, int products,
+                                    int customers, int dimensions, long seed) {
+        Random random = new Random(seed);
+        LoadTestData data = new LoadTestData();
+
+        List<Product> catalogue = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setEan(String.valueOf(FIRST_EAN + i));
+            product.setName(word(random) + " " + word(random));
+            product.setDescription(word(random) + " " + word(random) + " " + word(random) + " " + word(random));
+            product.setCategory(CATEGORIES.get(random.nextInt(CATEGORIES.size())));
+            product.setPrice(Math.round((1 + random.nextDouble() * 499) * 100) / 100.0);
+            product.setAvailable(1_000_000);
+
+            transport.putDocument(AppConstants.INDEX_PRODUCTS, product.getEan(), product);
+            qdrant.upsert(Long.parseLong(product.getEan()),
+                    OpenAiEmbeddingStub.embed(product.getName() + " " + product.getDescription(), dimensions),
+                    payload(product));
+            catalogue.add(product);
+            data.productEans.add(product.getEan());
+        }
+
+        for (int i = 0; i < customers; i++) {
+            String customerId = "loadtest-customer-" + i;
+            String orderId = "loadtest-order-" + i;
+
+            List<String> eans = new ArrayList<>(3);
+            double totalAmount = 0;
+            for (int j = 0; j < 3; j++) {
+                Product product = catalogue.get(random.nextInt(catalogue.size()));
+                eans.add(product.getEan());
+                totalAmount += product.getPrice();
+            }
+
+            transport.putDocument(AppConstants.INDEX_ORDERS, orderId, new Order(orderId, customerId, totalAmount, eans));
+            transport.putDocument(AppConstants.INDEX_CUSTOMERS, customerId, CustomerInfo.builder()
+                    .customerId(customerId)
+                    .firstName("Customer")
+                    .lastName(String.valueOf(i))
+                    .email("customer" + i + "@example.com")
+                    .orderIds(new ArrayList<>(List.of(orderId)))
+                    .build());
+            data.customerIds.add(customerId);
+            data.orderIds.add(orderId);
+        }
+        return data;
+    }
+
+    public String productEan(Random random) {
+        return productEans.get(random.nextInt(productEans.size()));
+    }
+
+    public String customerId(Random random) {
+        return customerIds.get(random.nextInt(customerIds.size()));
+    }
+
+    public String orderId(Random random) {
+        return orderIds.get(random.nextInt(orderIds.size()));
+    }
+
+    public static String word(Random random) {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    // Same fields QdrantSearchServiceImpl writes, so filtered vector searches behave as against the real collection
+    private static Map<String, Object> payload(Product product) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", product.getDescription());
+        payload.put("metadata", Map.of("source", "user"));
+        payload.put("ean", product.getEan());
+        payload.put("category", product.getCategory());
+        payload.put("price", product.getPrice());
+        payload.put("available", product.getAvailable());
+        return payload;
+    }
+}
@@ -0,0 +1,128 @@
+package org.springboot.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.App;
+import org.springboot.service.InMemoryElasticsearchTransport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application against the Elasticsearch stand-in and the OpenAI and Qdrant stubs, seeds data and drives the
+ * product and order endpoints at a fixed rate. Settings are system properties (see the {@code loadtest} Maven profile);
+ * program arguments are passed on to the application, e.g. {@code --embedding.cache.enabled=false}.
+ */
+public final class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private static final List<String> ELASTICSEARCH_OPERATIONS = List.of(
+            "get", "mget", "search", "index", "update", "delete", "bulk", "open_point_in_time", "close_point_in_time");
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rps = Double.parseDouble(System.getProperty("loadtest.rps", "100"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s"));
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "10s"));
+        int products = Integer.getInteger("loadtest.products", 10_000);
+        int customers = Integer.getInteger("loadtest.customers", 1_000);
+        int dimensions = Integer.getInteger("loadtest.dimensions", 1536);
+        long seed = Long.getLong("loadtest.seed", 42L);
+
+        try (OpenAiEmbeddingStub openAi = new OpenAiEmbeddingStub(latency("openai", "150ms+100ms", seed));
+             QdrantRestStub qdrant = new QdrantRestStub(latency("qdrant", "5ms+5ms", seed + 1))) {
+            openAi.start();
+            qdrant.start();
+
+            String[] applicationArgs = Stream.concat(Stream.of(
+                    "--spring.profiles.active=loadtest",
+                    "--spring.config.location=file:src/main/resources/application.properties,classpath:/application-loadtest.properties",
+                    "--spring.ai.openai.base-url=" + openAi.baseUrl(),
+                    "--spring.ai.vectorstore.qdrant.host=" + qdrant.host(),
+                    "--spring.ai.vectorstore.qdrant.port=" + qdrant.port(),
+                    "--spring.ai.vectorstore.qdrant.dimensions=" + dimensions
+            ), Stream.of(args)).toArray(String[]::new);
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class).run(applicationArgs)) {
+                InMemoryElasticsearchTransport transport = context.getBean(InMemoryElasticsearchTransport.class);
+                LoadTestData data = LoadTestData.seed(transport, qdrant, products, customers, dimensions, seed);
+                logger.info("Seeded {} products, {} customers and {} orders", products, customers, customers);
+
+                transport.setLatency(latency("elasticsearch", "2ms", seed + 2));
+                transport.resetRoundTrips();
+
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                LoadTestReport report = new LoadDriver(scenarios("http://127.0.0.1:" + port, data), seed)
+                        .run(rps, warmup, duration);
+
+                report.print(System.out, rps);
+                report.writeHistograms(Path.of("target", "loadtest"));
+                printDownstreamCalls(transport, openAi, qdrant);
+            }
+        }
+    }
+
+    private static List<LoadDriver.Scenario> scenarios(String baseUrl, LoadTestData data) {
+        return List.of(
+                new LoadDriver.Scenario("product-by-id", 40, random ->
+                        get(baseUrl + "/api/products/" + data.productEan(random))),
+                new LoadDriver.Scenario("products-batch", 10, random ->
+                        get(baseUrl + "/api/products/batch?ids=" + String.join(",",
+                                data.productEan(random), data.productEan(random), data.productEan(random),
+                                data.productEan(random), data.productEan(random)))),
+                new LoadDriver.Scenario("category-search", 10, random ->
+                        get(baseUrl + "/api/products/search/"
+                                + LoadTestData.CATEGORIES.get(random.nextInt(LoadTestData.CATEGORIES.size())))),
+                new LoadDriver.Scenario("hybrid-search", 10, random ->
+                        get(baseUrl + "/api/products/search/hybrid?query="
+                                + encode(LoadTestData.word(random) + " " + LoadTestData.word(random)))),
+                new LoadDriver.Scenario("add-order", 15, random ->
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders?customerId=" + data.customerId(random)
+                                        + "&productEans=" + data.productEan(random) + "&productEans=" + data.productEan(random)))
+                                .POST(HttpRequest.BodyPublishers.noBody())),
+                new LoadDriver.Scenario("order-with-products", 10, random ->
+                        get(baseUrl + "/api/orders/productsInfo/" + data.orderId(random))),
+                new LoadDriver.Scenario("sold-product", 5, random ->
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/sold/" + data.productEan(random)))
+                                .PUT(HttpRequest.BodyPublishers.noBody()))
+        );
+    }
+
+    private static void printDownstreamCalls(InMemoryElasticsearchTransport transport, StubServer... stubs) {
+        System.out.printf("%nDownstream calls, warmup included%n");
+        for (String operation : ELASTICSEARCH_OPERATIONS) {
+            long roundTrips = transport.roundTrips(operation);
+            if (roundTrips > 0) {
+                System.out.printf("  elasticsearch %-20s %9d%n", operation, roundTrips);
+            }
+        }
+        for (StubServer stub : stubs) {
+            System.out.printf("  %-34s %9d%n", stub.name(), stub.requestCount());
+        }
+    }
+
+    private static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static LatencyProfile latency(String downstream, String defaultLatency, long seed) {
+        return LatencyProfile.parse(System.getProperty("loadtest.latency." + downstream, defaultLatency), seed);
+    }
+}
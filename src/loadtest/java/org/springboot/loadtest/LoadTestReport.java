@@ -0,0 +1,77 @@
+package org.springboot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms (microseconds, 3 significant digits) and status counts per endpoint, for the measured part of a
+ * run only. Latency is taken from the time a request was scheduled to be sent, not from when it actually was.
+ */
+public class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Duration measured;
+
+    public LoadTestReport(Collection<String> endpointNames, Duration measured) {
+        endpointNames.forEach(name -> endpoints.put(name, new Endpoint()));
+        this.measured = measured;
+    }
+
+    // status is 0 when no response came back at all
+    public void record(String endpointName, long latencyNanos, int status) {
+        Endpoint endpoint = endpoints.get(endpointName);
+        endpoint.latency.recordValue(Math.max(1, latencyNanos / 1_000));
+        endpoint.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status == 0 || status >= 400) {
+            endpoint.errors.increment();
+        }
+    }
+
+    public void print(PrintStream out, double targetRps) {
+        double seconds = measured.toNanos() / 1e9;
+        long total = endpoints.values().stream().mapToLong(endpoint -> endpoint.latency.getTotalCount()).sum();
+
+        out.printf("%nTarget %.1f rps, achieved %.1f rps over %s%n%n", targetRps, total / seconds, measured);
+        out.printf("%-20s %9s %7s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        endpoints.forEach((name, endpoint) -> {
+            Histogram latency = endpoint.latency;
+            out.printf("%-20s %9d %7d %9.1f", name, latency.getTotalCount(), endpoint.errors.sum(),
+                    latency.getTotalCount() / seconds);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", latency.getValueAtPercentile(percentile) / 1_000.0);
+            }
+            out.printf(" %9.2f  %s%n", latency.getMaxValue() / 1_000.0, endpoint.statuses);
+        });
+    }
+
+    // One .hgrm file per endpoint, in milliseconds, to load into the HdrHistogram plotter or diff between runs
+    public void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().latency.outputPercentileDistribution(out, 1_000.0);
+            }
+        }
+    }
+}
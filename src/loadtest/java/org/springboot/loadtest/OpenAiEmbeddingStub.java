@@ -0,0 +1,77 @@
+package org.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * OpenAI {@code POST /v1/embeddings} stand-in. A vector is the normalized sum of one pseudo-random vector per word, seeded
+ * by the word, so the same text always embeds the same way and texts sharing words end up close to each other.
+ */
+public class OpenAiEmbeddingStub extends StubServer {
+
+    private static final int DEFAULT_DIMENSIONS = 1536;
+
+    public OpenAiEmbeddingStub(LatencyProfile latency) throws IOException {
+        super("openai", latency);
+    }
+
+    public static float[] embed(String text, int dimensions) {
+        float[] vector = new float[dimensions];
+        List<String> words = Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+        for (String word : words.isEmpty() ? List.of("") : words) {
+            Random random = new Random(word.hashCode());
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] += (float) random.nextGaussian();
+            }
+        }
+
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    @Override
+    protected Object handle(String method, String path, JsonNode body) {
+        if (!"POST".equals(method) || !path.endsWith("/embeddings")) {
+            return null;
+        }
+
+        List<String> inputs = new ArrayList<>();
+        if (body.path("input").isArray()) {
+            body.path("input").forEach(input -> inputs.add(input.asText()));
+        } else {
+            inputs.add(body.path("input").asText());
+        }
+        int dimensions = body.path("dimensions").asInt(DEFAULT_DIMENSIONS);
+
+        List<Map<String, Object>> data = new ArrayList<>(inputs.size());
+        int tokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            data.add(Map.of(
+                    "object", "embedding",
+                    "index", i,
+                    "embedding", embed(inputs.get(i), dimensions)));
+            tokens += inputs.get(i).length() / 4 + 1;
+        }
+        return Map.of(
+                "object", "list",
+                "data", data,
+                "model", body.path("model").asText("text-embedding-3-small"),
+                "usage", Map.of("prompt_tokens", tokens, "total_tokens", tokens));
+    }
+}
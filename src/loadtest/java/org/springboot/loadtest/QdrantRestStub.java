@@ -0,0 +1,158 @@
+package org.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Qdrant REST stand-in for the calls of {@code QdrantSearchServiceImpl}: collection and payload index setup, point
+ * upsert, delete and set_payload batches, and exact (brute-force dot product) search with {@code match}/{@code range}
+ * payload filters. Quantization parameters are accepted and ignored.
+ */
+public class QdrantRestStub extends StubServer {
+
+    private record Point(float[] vector, ObjectNode payload) {
+    }
+
+    private record Scored(long id, double score, ObjectNode payload) {
+    }
+
+    private final Set<String> collections = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+
+    public QdrantRestStub(LatencyProfile latency) throws IOException {
+        super("qdrant", latency);
+    }
+
+    // Seeding does not go through HTTP and is not delayed
+    public void upsert(long id, float[] vector, Map<String, Object> payload) {
+        points.put(id, new Point(vector, json.valueToTree(payload)));
+    }
+
+    public int pointCount() {
+        return points.size();
+    }
+
+    @Override
+    protected Object handle(String method, String path, JsonNode body) {
+        String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+        if (parts.length < 2 || !"collections".equals(parts[0])) {
+            return null;
+        }
+        String collection = parts[1];
+        String action = String.join("/", Arrays.copyOfRange(parts, 2, parts.length));
+
+        return switch (method + " " + action) {
+            case "GET exists" -> ok(Map.of("exists", collections.contains(collection)));
+            case "PUT " -> {
+                collections.add(collection);
+                yield ok(true);
+            }
+            case "PUT index" -> ok(Map.of("operation_id", 0, "status", "completed"));
+            case "PUT points" -> {
+                body.path("points").forEach(point -> points.put(point.path("id").asLong(),
+                        new Point(toVector(point.path("vector")), (ObjectNode) point.path("payload").deepCopy())));
+                yield completed();
+            }
+            case "POST points/delete" -> {
+                body.path("points").forEach(id -> points.remove(id.asLong()));
+                yield completed();
+            }
+            case "POST points/batch" -> {
+                body.path("operations").forEach(operation -> setPayload(operation.path("set_payload")));
+                yield completed();
+            }
+            case "POST points/search" -> ok(search(body));
+            default -> null;
+        };
+    }
+
+    private void setPayload(JsonNode setPayload) {
+        if (setPayload.isMissingNode()) {
+            return;
+        }
+        for (JsonNode condition : setPayload.path("filter").path("must")) {
+            for (JsonNode id : condition.path("has_id")) {
+                points.computeIfPresent(id.asLong(), (key, point) -> {
+                    ObjectNode payload = point.payload().deepCopy();
+                    payload.setAll((ObjectNode) setPayload.path("payload"));
+                    return new Point(point.vector(), payload);
+                });
+            }
+        }
+    }
+
+    private List<Map<String, Object>> search(JsonNode body) {
+        float[] query = toVector(body.path("vector"));
+        int limit = body.path("limit").asInt(10);
+        boolean withPayload = body.path("with_payload").asBoolean(false);
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(Comparator.comparingDouble(Scored::score));
+        points.forEach((id, point) -> {
+            if (!matches(body.path("filter"), point.payload())) {
+                return;
+            }
+            double score = 0;
+            for (int i = 0; i < Math.min(query.length, point.vector().length); i++) {
+                score += query[i] * point.vector()[i];
+            }
+            top.add(new Scored(id, score, point.payload()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Scored::score).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            Map<String, Object> hit = new LinkedHashMap<>();
+            hit.put("id", scored.id());
+            hit.put("version", 0);
+            hit.put("score", scored.score());
+            hit.put("payload", withPayload ? scored.payload() : null);
+            result.add(hit);
+        }
+        return result;
+    }
+
+    private boolean matches(JsonNode filter, ObjectNode payload) {
+        for (JsonNode condition : filter.path("must")) {
+            JsonNode value = payload.path(condition.path("key").asText());
+            if (condition.has("match") && !value.asText().equals(condition.path("match").path("value").asText())) {
+                return false;
+            }
+            JsonNode range = condition.path("range");
+            if (range.has("gt") && !(value.asDouble() > range.get("gt").asDouble())
+                    || range.has("gte") && !(value.asDouble() >= range.get("gte").asDouble())
+                    || range.has("lt") && !(value.asDouble() < range.get("lt").asDouble())
+                    || range.has("lte") && !(value.asDouble() <= range.get("lte").asDouble())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private float[] toVector(JsonNode node) {
+        float[] vector = new float[node.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) node.get(i).asDouble();
+        }
+        return vector;
+    }
+
+    private Map<String, Object> ok(Object result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("result", result);
+        response.put("status", "ok");
+        response.put("time", 0.0);
+        return response;
+    }
+
+    private Map<String, Object> completed() {
+        return ok(Map.of("operation_id", 0, "status", "completed"));
+    }
+}
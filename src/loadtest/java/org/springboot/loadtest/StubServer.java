@@ -0,0 +1,106 @@
+package org.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON-over-HTTP stand-in for a downstream, on the JDK's built-in server with one virtual thread per request. Each
+ * request waits out the latency profile before it is answered, the handlers themselves only route and build JSON.
+ */
+public abstract class StubServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubServer.class);
+
+    protected final ObjectMapper json = new ObjectMapper();
+
+    private final String name;
+    private final LatencyProfile latency;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder requests = new LongAdder();
+
+    protected StubServer(String name, LatencyProfile latency) throws IOException {
+        this.name = name;
+        this.latency = latency;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::exchange);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("{} stub listening on {} with latency {}", name, baseUrl(), latency);
+    }
+
+    public String baseUrl() {
+        return "http://" + host() + ":" + port();
+    }
+
+    public String host() {
+        return server.getAddress().getAddress().getHostAddress();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    // Returns the response body, or null for a 404
+    protected abstract Object handle(String method, String path, JsonNode body);
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try {
+            JsonNode body;
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readAllBytes();
+                body = bytes.length == 0 ? MissingNode.getInstance() : json.readTree(bytes);
+            }
+
+            latency.pause();
+            Object response = handle(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), body);
+            byte[] payload = json.writeValueAsBytes(response == null ? Map.of("status", "not found") : response);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response == null ? 404 : 200, payload.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(payload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("{} stub failed on {} {}", name, exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
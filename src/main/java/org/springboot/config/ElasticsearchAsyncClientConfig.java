@@ -0,0 +1,16 @@
+package org.springboot.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ElasticsearchAsyncClientConfig {
+
+    // Shares the transport of the blocking client, so both use the same connection pool and non-blocking I/O threads
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchClient client) {
+        return new ElasticsearchAsyncClient(client._transport(), client._transportOptions());
+    }
+}
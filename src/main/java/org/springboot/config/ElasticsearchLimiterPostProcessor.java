@@ -0,0 +1,29 @@
+package org.springboot.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.springboot.service.DownstreamLimiters;
+import org.springboot.utility.AppConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+// Wraps the transport of every ElasticsearchClient bean, whichever profile created it
+@Component
+public class ElasticsearchLimiterPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<DownstreamLimiters> limiters;
+
+    public ElasticsearchLimiterPostProcessor(ObjectProvider<DownstreamLimiters> limiters) {
+        this.limiters = limiters;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ElasticsearchClient client && !(client._transport() instanceof LimitedElasticsearchTransport)) {
+            LimitedElasticsearchTransport transport = new LimitedElasticsearchTransport(client._transport(),
+                    limiters.getObject().limiter(AppConstants.DOWNSTREAM_ELASTICSEARCH));
+            return new ElasticsearchClient(transport, client._transportOptions());
+        }
+        return bean;
+    }
+}
@@ -6,11 +6,15 @@ import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
 import org.apache.http.HttpHost;
+import org.elasticsearch.client.NodeSelector;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+import org.springboot.config.properties.ElasticsearchProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -21,26 +25,71 @@ import org.springframework.stereotype.Component;
 @Profile("prod")
 public class GetESClient {
     private final HttpClientConfigImpl httpClientConfigImpl;
+    private final ElasticsearchProperties properties;
 
-    public GetESClient(HttpClientConfigImpl httpClientConfigImpl) {
+    private Sniffer sniffer;
+
+    public GetESClient(HttpClientConfigImpl httpClientConfigImpl, ElasticsearchProperties properties) {
         this.httpClientConfigImpl = httpClientConfigImpl;
+        this.properties = properties;
     }
 
     @Bean(name = "elasticsearchClient")
     @Primary
     public ElasticsearchClient getElasticsearchClient() {
-        RestClientBuilder builder = RestClient.builder(new HttpHost("localhost", 9200, "https"));
+        if (properties.getHosts().isEmpty()) {
+            throw new IllegalStateException("At least one Elasticsearch host must be configured in elasticsearch.hosts");
+        }
+        HttpHost[] hosts = properties.getHosts().stream()
+                .map(HttpHost::create)
+                .toArray(HttpHost[]::new);
+
+        // The low-level client rotates requests over the nodes, retries on another node and keeps failed ones out for a backoff period
+        RestClientBuilder builder = RestClient.builder(hosts)
+                .setCompressionEnabled(properties.isCompression());
 
         builder.setHttpClientConfigCallback(httpClientConfigImpl);
+        builder.setRequestConfigCallback(httpClientConfigImpl);
+
+        SniffOnFailureListener failureListener = null;
+        if (properties.getSniffer().isEnabled()) {
+            // Sniffed nodes carry their roles, so dedicated masters can be kept out of the request rotation
+            failureListener = new SniffOnFailureListener();
+            builder.setFailureListener(failureListener);
+            builder.setNodeSelector(NodeSelector.SKIP_DEDICATED_MASTERS);
+        }
 
         RestClient restClient = builder.build();
 
+        if (failureListener != null) {
+            ElasticsearchNodesSniffer.Scheme scheme = "https".equals(hosts[0].getSchemeName())
+                    ? ElasticsearchNodesSniffer.Scheme.HTTPS
+                    : ElasticsearchNodesSniffer.Scheme.HTTP;
+            sniffer = Sniffer.builder(restClient)
+                    .setSniffIntervalMillis((int) properties.getSniffer().getInterval().toMillis())
+                    .setSniffAfterFailureDelayMillis((int) properties.getSniffer().getDelayAfterFailure().toMillis())
+                    .setNodesSniffer(new ElasticsearchNodesSniffer(restClient, ElasticsearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT, scheme))
+                    .build();
+            failureListener.setSniffer(sniffer);
+        }
+
+        ElasticsearchTransport transport = new RestClientTransport(restClient, jsonpMapper());
+
+        return new ElasticsearchClient(transport);
+    }
+
+    // Shared with the JMH benchmarks, so they measure (de)serialization exactly as the client does it
+    public static JacksonJsonpMapper jsonpMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
 
-        JacksonJsonpMapper jsonpMapper = new JacksonJsonpMapper(objectMapper);
-        ElasticsearchTransport transport = new RestClientTransport(restClient, jsonpMapper);
+        return new JacksonJsonpMapper(objectMapper);
+    }
 
-        return new ElasticsearchClient(transport);
+    @PreDestroy
+    public void shutdown() {
+        if (sniffer != null) {
+            sniffer.close();
+        }
     }
 }
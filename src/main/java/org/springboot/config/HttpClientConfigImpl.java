@@ -1,11 +1,24 @@
 package org.springboot.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContexts;
 import org.elasticsearch.client.RestClientBuilder;
 import org.springboot.config.properties.ElasticsearchProperties;
@@ -14,38 +27,93 @@ import org.springframework.context.annotation.Profile;
 
 import javax.net.ssl.SSLContext;
 import java.io.File;
+import java.util.function.ToDoubleFunction;
 
 @Configuration
 @Profile("prod")
-public class HttpClientConfigImpl implements RestClientBuilder.HttpClientConfigCallback {
+public class HttpClientConfigImpl implements RestClientBuilder.HttpClientConfigCallback, RestClientBuilder.RequestConfigCallback {
 
     private final ElasticsearchProperties properties;
+    private final MeterRegistry meterRegistry;
 
-    public HttpClientConfigImpl(ElasticsearchProperties properties) {
+    public HttpClientConfigImpl(ElasticsearchProperties properties, MeterRegistry meterRegistry) {
         this.properties = properties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public HttpAsyncClientBuilder customizeHttpClient(HttpAsyncClientBuilder httpAsyncClientBuilder) {
-        try {
-            final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            UsernamePasswordCredentials usernamePasswordCredentials = new UsernamePasswordCredentials(properties.getUsername(), properties.getPassword());
+        final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        UsernamePasswordCredentials usernamePasswordCredentials = new UsernamePasswordCredentials(properties.getUsername(), properties.getPassword());
+
+        credentialsProvider.setCredentials(AuthScope.ANY, usernamePasswordCredentials);
+        httpAsyncClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+
+        // Our own connection manager, so the pool can be sized and observed; it replaces the builder's SSL and pool settings
+        PoolingNHttpClientConnectionManager connectionManager = connectionManager(sslContext());
+        monitor(connectionManager);
+        httpAsyncClientBuilder.setConnectionManager(connectionManager);
+
+        long keepAliveMillis = properties.getKeepAlive().toMillis();
+        httpAsyncClientBuilder.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+        });
+        return httpAsyncClientBuilder;
+    }
 
-            credentialsProvider.setCredentials(AuthScope.ANY, usernamePasswordCredentials);
-            httpAsyncClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+    @Override
+    public RequestConfig.Builder customizeRequestConfig(RequestConfig.Builder requestConfigBuilder) {
+        return requestConfigBuilder
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis());
+    }
 
+    // A client without the truststore can not talk to the cluster, so a broken one fails the startup
+    private SSLContext sslContext() {
+        try {
             File trustStoreFile = new File(properties.getTruststorePath());
 
-            SSLContext sslContext = SSLContexts.custom()
+            return SSLContexts.custom()
                     .loadTrustMaterial(trustStoreFile, properties.getTruststorePassword().toCharArray())
                     .build();
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem with loading Elasticsearch truststore " + properties.getTruststorePath(), e);
+        }
+    }
 
-            httpAsyncClientBuilder.setSSLContext(sslContext);
+    private PoolingNHttpClientConnectionManager connectionManager(SSLContext sslContext) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSoTimeout((int) properties.getSocketTimeout().toMillis())
+                .setSoKeepAlive(true)
+                .build();
+        Registry<SchemeIOSessionStrategy> sessionStrategies = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", new SSLIOSessionStrategy(sslContext, SSLIOSessionStrategy.getDefaultHostnameVerifier()))
+                .build();
 
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-            e.printStackTrace();
+        try {
+            PoolingNHttpClientConnectionManager connectionManager =
+                    new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig), sessionStrategies);
+            connectionManager.setMaxTotal(properties.getMaxConnTotal());
+            connectionManager.setDefaultMaxPerRoute(properties.getMaxConnPerRoute());
+            return connectionManager;
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Problem with starting the Elasticsearch I/O reactor", e);
         }
-        return httpAsyncClientBuilder;
     }
-}
\ No newline at end of file
+
+    private void monitor(PoolingNHttpClientConnectionManager connectionManager) {
+        gauge("elasticsearch.client.pool.leased", connectionManager, stats -> stats.getLeased());
+        gauge("elasticsearch.client.pool.pending", connectionManager, stats -> stats.getPending());
+        gauge("elasticsearch.client.pool.available", connectionManager, stats -> stats.getAvailable());
+        gauge("elasticsearch.client.pool.max", connectionManager, stats -> stats.getMax());
+    }
+
+    private void gauge(String name, PoolingNHttpClientConnectionManager connectionManager, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(name, connectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+                .register(meterRegistry);
+    }
+}
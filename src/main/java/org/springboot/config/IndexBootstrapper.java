@@ -0,0 +1,82 @@
+package org.springboot.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.utility.AppConstants;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@Component
+public class IndexBootstrapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexBootstrapper.class);
+
+    private static final Map<String, String> INDEX_DEFINITIONS = Map.of(
+            AppConstants.INDEX_PRODUCTS, "elasticsearch/products-index.json",
+            AppConstants.INDEX_ORDERS, "elasticsearch/orders-index.json",
+            AppConstants.INDEX_CUSTOMERS, "elasticsearch/customers-index.json",
+            AppConstants.INDEX_VECTOR_OUTBOX, "elasticsearch/vector-outbox-index.json",
+            AppConstants.INDEX_CATALOG_VERSION, "elasticsearch/catalog-version-index.json"
+    );
+
+    private static final Map<String, String> STORED_SCRIPTS = Map.of(
+            AppConstants.SCRIPT_PRODUCT_SELL, "elasticsearch/scripts/product-sell.json",
+            AppConstants.SCRIPT_PRODUCT_RESTOCK, "elasticsearch/scripts/product-restock.json",
+            AppConstants.SCRIPT_CUSTOMER_ADD_ORDER, "elasticsearch/scripts/customer-add-order.json",
+            AppConstants.SCRIPT_CUSTOMER_REMOVE_ORDER, "elasticsearch/scripts/customer-remove-order.json"
+    );
+
+    private final ElasticsearchClient client;
+
+    public IndexBootstrapper(ElasticsearchClient client) {
+        this.client = client;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        INDEX_DEFINITIONS.forEach(this::createIndexIfNotExists);
+        STORED_SCRIPTS.forEach(this::putScript);
+    }
+
+    private void putScript(String id, String definition) {
+        try (InputStream body = new ClassPathResource(definition).getInputStream()) {
+            client.putScript(p -> p
+                    .id(id)
+                    .withJson(body));
+            logger.info("Registered stored script {}", id);
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with registering stored script: " + id, e);
+        }
+    }
+
+    private void createIndexIfNotExists(String index, String definition) {
+        try {
+            boolean indexExists = client.indices().exists(e -> e.index(index)).value();
+
+            if (indexExists) {
+                logger.info("Index {} already exists, keeping its current mappings", index);
+                return;
+            }
+
+            try (InputStream body = new ClassPathResource(definition).getInputStream()) {
+                client.indices().create(c -> c
+                        .index(index)
+                        .withJson(body));
+            }
+            logger.info("Created index {} from {}", index, definition);
+        } catch (ElasticsearchException e) {
+            if (!"resource_already_exists_exception".equals(e.error().type())) {
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with creating index: " + index, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.springboot.config;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.Endpoint;
+import co.elastic.clients.transport.TransportOptions;
+import org.springboot.utility.AdaptiveLimiter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Puts every request of the blocking and the async client behind the Elasticsearch limiter
+public class LimitedElasticsearchTransport implements ElasticsearchTransport {
+
+    private final ElasticsearchTransport delegate;
+    private final AdaptiveLimiter limiter;
+
+    public LimitedElasticsearchTransport(ElasticsearchTransport delegate, AdaptiveLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                  TransportOptions options) throws IOException {
+        AdaptiveLimiter.Permit permit = limiter.acquire();
+        try {
+            ResponseT response = delegate.performRequest(request, endpoint, options);
+            permit.success();
+            return response;
+        } catch (IOException | RuntimeException | Error e) {
+            release(permit, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                                         TransportOptions options) {
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(limiter.overloaded());
+        }
+        return delegate.performRequestAsync(request, endpoint, options)
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        permit.success();
+                    } else {
+                        release(permit, error instanceof CompletionException ? error.getCause() : error);
+                    }
+                });
+    }
+
+    // An error response (404, 409, ...) is a fast answer, only throttling, server errors and I/O failures lower the limit
+    private void release(AdaptiveLimiter.Permit permit, Throwable error) {
+        if (error instanceof ElasticsearchException e && e.status() != 429 && e.status() < 500) {
+            permit.success();
+        } else {
+            permit.dropped();
+        }
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+        return delegate.jsonpMapper();
+    }
+
+    @Override
+    public TransportOptions options() {
+        return delegate.options();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -1,6 +1,11 @@
 package org.springboot.config;
 
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
 import org.springboot.config.properties.QdrantProperties;
+import org.springboot.service.DownstreamLimiters;
+import org.springboot.utility.AppConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -9,10 +14,17 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class QdrantClientConfig {
 
     @Bean
-    public WebClient qdrantWebClient(QdrantProperties properties) {
+    public WebClient qdrantWebClient(QdrantProperties properties, DownstreamLimiters limiters) {
         String baseUrl = String.format("http://%s:%d", properties.getHost(), properties.getPort());
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .filter(limiters.exchangeFilter(AppConstants.DOWNSTREAM_QDRANT))
                 .build();
     }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "vector-store", name = "backend", havingValue = "grpc")
+    public QdrantClient qdrantGrpcClient(QdrantProperties properties) {
+        return new QdrantClient(QdrantGrpcClient.newBuilder(properties.getHost(), properties.getGrpcPort(), false).build());
+    }
 }
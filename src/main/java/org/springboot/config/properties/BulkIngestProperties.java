@@ -0,0 +1,16 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "ingest.bulk")
+public class BulkIngestProperties {
+
+    private int maxActions = 1000;
+    private long maxBytes = 5 * 1024 * 1024;
+}
@@ -0,0 +1,35 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamLimitProperties {
+
+    // Keyed by downstream name (elasticsearch, openai, qdrant), downstreams without an entry use the defaults below
+    private Map<String, Limit> limits = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        // Multiplicative decrease applied when a call fails, is throttled or exceeds slowCallThreshold
+        private double backoffRatio = 0.9;
+        private Duration slowCallThreshold = Duration.ofSeconds(1);
+        // Blocking callers over the limit wait up to maxWait, at most maxQueue of them; everyone else is rejected at once
+        private int maxQueue = 50;
+        private Duration maxWait = Duration.ofMillis(50);
+    }
+}
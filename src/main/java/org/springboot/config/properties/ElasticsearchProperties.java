@@ -5,6 +5,10 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @Component
@@ -14,4 +18,27 @@ public class ElasticsearchProperties {
     private String password;
     private String truststorePath;
     private String truststorePassword;
-}
\ No newline at end of file
+    // Seed nodes as scheme://host:port; with the sniffer enabled the rest of the cluster is discovered from them
+    private List<String> hosts = new ArrayList<>(List.of("https://localhost:9200"));
+    private int maxConnTotal = 100;
+    private int maxConnPerRoute = 30;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration socketTimeout = Duration.ofSeconds(30);
+    // How long a request may wait for a free pooled connection
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    // Idle connections are not reused after this, load balancers and firewalls tend to drop them silently
+    private Duration keepAlive = Duration.ofMinutes(1);
+    // Gzips request bodies and asks for gzipped responses, pays off mostly for _bulk and large searches
+    private boolean compression = true;
+    private Sniffer sniffer = new Sniffer();
+
+    @Getter
+    @Setter
+    public static class Sniffer {
+
+        private boolean enabled = false;
+        private Duration interval = Duration.ofMinutes(5);
+        // A node failure triggers an immediate sniff, the next one follows after this delay
+        private Duration delayAfterFailure = Duration.ofMinutes(1);
+    }
+}
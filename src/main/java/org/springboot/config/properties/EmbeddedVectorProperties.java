@@ -0,0 +1,22 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "vector-store.embedded")
+public class EmbeddedVectorProperties {
+
+    private String directory = "data/hnsw";
+    private int dimensions = 1536;
+    private int m = 16;
+    private int efConstruction = 200;
+    private int efSearch = 100;
+    private int initialCapacity = 10_000;
+    private int filterOverFetch = 4;
+    private int maxFilterCandidates = 2_000;
+}
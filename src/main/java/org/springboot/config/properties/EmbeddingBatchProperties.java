@@ -0,0 +1,22 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "embedding.batch")
+public class EmbeddingBatchProperties {
+
+    private int maxBatchSize = 64;
+    private Duration maxWait = Duration.ofMillis(10);
+    private int queueCapacity = 10_000;
+    private int maxConcurrentBatches = 4;
+    // Batches waiting for a free model call; once they are taken too, new batches fail fast instead of piling up
+    private int maxQueuedBatches = 4;
+}
@@ -0,0 +1,23 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "search.hybrid")
+public class HybridSearchProperties {
+
+    private int rrfK = 60;
+    private double lexicalWeight = 1.0;
+    private double vectorWeight = 1.0;
+    private int candidateSize = 50;
+    private int resultSize = 10;
+    private Duration lexicalTimeout = Duration.ofMillis(500);
+    private Duration vectorTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,29 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "elasticsearch.near-cache")
+public class NearCacheProperties {
+
+    private boolean enabled = false;
+    // Keyed by index name, indices without an entry are always read from Elasticsearch
+    private Map<String, IndexSettings> indices = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class IndexSettings {
+
+        private long maxEntries = 10_000;
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+}
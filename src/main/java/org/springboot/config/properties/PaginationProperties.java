@@ -0,0 +1,21 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+
+    private int defaultPageSize = 100;
+    private int maxPageSize = 1000;
+    private String keepAlive = "1m";
+    private int exportPageSize = 1000;
+    private Duration exportTimeout = Duration.ofMinutes(30);
+}
@@ -13,7 +13,19 @@ public class QdrantProperties {
 
     private String host;
     private int port;
+    private int grpcPort = 6334;
     private String collectionName;
+    private int dimensions = 1536;
+    private String distance = "Cosine";
+    private Quantization quantization = Quantization.INT8;
+    private boolean rescore = true;
+    private double oversampling = 2.0;
+
+    public enum Quantization {
+        NONE,
+        INT8,
+        BINARY
+    }
 
     public void setHost(String host) {
         this.host = host;
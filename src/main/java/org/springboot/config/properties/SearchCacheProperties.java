@@ -0,0 +1,25 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "search.cache")
+public class SearchCacheProperties {
+
+    private boolean enabled = true;
+    private long maxEntries = 10_000;
+    private Duration refreshAfter = Duration.ofSeconds(15);
+    // Upper bound on how stale a cached first page can get when no write invalidates it. Cached first pages hand out
+    // their PIT cursor, so entries must expire before pagination.keep-alive
+    private Duration expireAfter = Duration.ofSeconds(45);
+    // Searches right after a write bypass the cache until the index refresh has made the write visible. The catalog
+    // version is polled at the same interval to see catalog writes made by other instances.
+    private Duration bypassWindow = Duration.ofSeconds(1);
+}
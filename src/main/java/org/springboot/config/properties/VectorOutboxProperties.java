@@ -0,0 +1,24 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "vector-store.outbox")
+public class VectorOutboxProperties {
+
+    private boolean enabled = true;
+    private int batchSize = 100;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    // A claimed batch is hidden from other instances this long, it must cover one embedding and Qdrant round
+    private Duration lease = Duration.ofMinutes(2);
+    private int maxAttempts = 10;
+}
@@ -0,0 +1,21 @@
+package org.springboot.config.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "vector-store")
+public class VectorStoreProperties {
+
+    public enum Backend {
+        REST,
+        GRPC,
+        EMBEDDED
+    }
+
+    private Backend backend = Backend.REST;
+}
@@ -1,24 +1,31 @@
 package org.springboot.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springboot.dto.CursorPage;
 import org.springboot.model.CustomerInfo;
 import org.springboot.service.CustomerInfoService;
 import org.springboot.service.ElasticsearchServiceImpl;
+import org.springboot.service.ExportService;
 import org.springboot.utility.AppConstants;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
-import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerInfoController {
     private final CustomerInfoService customerInfoService;
     private final ElasticsearchServiceImpl elasticsearchService;
+    private final ExportService exportService;
 
-    public CustomerInfoController(CustomerInfoService customerInfoService, ElasticsearchServiceImpl elasticsearchService) {
+    public CustomerInfoController(CustomerInfoService customerInfoService, ElasticsearchServiceImpl elasticsearchService, ExportService exportService) {
         this.customerInfoService = customerInfoService;
         this.elasticsearchService = elasticsearchService;
+        this.exportService = exportService;
     }
 
     @PostMapping
@@ -28,11 +35,17 @@ public class CustomerInfoController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<CustomerInfo>> getAllCustomers() {
-        List<CustomerInfo> allCustomers = elasticsearchService.getAll(AppConstants.INDEX_CUSTOMERS, CustomerInfo.class);
+    public ResponseEntity<CursorPage<CustomerInfo>> getAllCustomers(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer size) {
+        CursorPage<CustomerInfo> allCustomers = elasticsearchService.getPage(AppConstants.INDEX_CUSTOMERS, cursor, size, CustomerInfo.class);
         return new ResponseEntity<>(allCustomers, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportCustomers(HttpServletResponse response) {
+        return exportService.exportTask(AppConstants.INDEX_CUSTOMERS, Set.of("password"), response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CustomerInfo> getCustomerById(@PathVariable String id) throws Exception {
         CustomerInfo customer = elasticsearchService.getById(AppConstants.INDEX_CUSTOMERS, id, CustomerInfo.class);
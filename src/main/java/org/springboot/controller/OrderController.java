@@ -1,16 +1,22 @@
 package org.springboot.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springboot.dto.CursorPage;
 import org.springboot.dto.OrderDto;
 import org.springboot.exception.ProductNotFoundException;
 import org.springboot.model.Order;
 import org.springboot.service.ElasticsearchServiceImpl;
+import org.springboot.service.ExportService;
 import org.springboot.service.OrderService;
 import org.springboot.utility.AppConstants;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -18,10 +24,12 @@ public class OrderController {
 
     private final OrderService orderService;
     private final ElasticsearchServiceImpl elasticsearchService;
+    private final ExportService exportService;
 
-    public OrderController(OrderService orderService, ElasticsearchServiceImpl elasticsearchService) {
+    public OrderController(OrderService orderService, ElasticsearchServiceImpl elasticsearchService, ExportService exportService) {
         this.orderService = orderService;
         this.elasticsearchService = elasticsearchService;
+        this.exportService = exportService;
     }
 
     @PostMapping
@@ -31,11 +39,17 @@ public class OrderController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = elasticsearchService.getAll(AppConstants.INDEX_ORDERS, Order.class);
+    public ResponseEntity<CursorPage<Order>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size) {
+        CursorPage<Order> orders = elasticsearchService.getPage(AppConstants.INDEX_ORDERS, cursor, size, Order.class);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportOrders(HttpServletResponse response) {
+        return exportService.exportTask(AppConstants.INDEX_ORDERS, Set.of(), response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable String id) {
         Order order = elasticsearchService.getById(AppConstants.INDEX_ORDERS, id, Order.class);
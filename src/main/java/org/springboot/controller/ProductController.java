@@ -1,17 +1,27 @@
 package org.springboot.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springboot.dto.BulkItemResult;
+import org.springboot.dto.CursorPage;
+import org.springboot.dto.VectorFilter;
 import org.springboot.exception.ProductNotFoundException;
 import org.springboot.model.Product;
-import org.springboot.service.ElasticsearchServiceImpl;
+import org.springboot.service.ExportService;
+import org.springboot.service.ProductIngestService;
 import org.springboot.service.ProductService;
+import org.springboot.service.ReactiveProductService;
 import org.springboot.utility.AppConstants;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,7 +29,9 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
-    private final ElasticsearchServiceImpl elasticsearchService;
+    private final ReactiveProductService reactiveProductService;
+    private final ProductIngestService productIngestService;
+    private final ExportService exportService;
 
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -27,6 +39,18 @@ public class ProductController {
         return new ResponseEntity<>(savedProduct, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createProductsBulk(@RequestBody List<Product> products) {
+        List<BulkItemResult> results = productIngestService.ingestProducts(products);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createProductsBulkNdjson(@RequestBody String ndjson) {
+        List<BulkItemResult> results = productIngestService.ingestNdjson(ndjson);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     @PutMapping("/sold/{id}")
     public ResponseEntity<Product> soldProduct(@PathVariable String id) throws ProductNotFoundException {
         Product updateProduct = productService.soldProduct(id);
@@ -34,15 +58,27 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<Iterable<Product>> getAllProducts() {
-        Iterable<Product> allProducts = elasticsearchService.getAll(AppConstants.INDEX_PRODUCTS, Product.class);
-        return new ResponseEntity<>(allProducts, HttpStatus.OK);
+    public Mono<CursorPage<Product>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return reactiveProductService.getAllProducts(cursor, size);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportProducts(HttpServletResponse response) {
+        return exportService.exportTask(AppConstants.INDEX_PRODUCTS, Set.of(), response);
+    }
+
+    @GetMapping("/batch")
+    public Flux<Product> getProductsByIds(@RequestParam List<String> ids) {
+        if (ids.size() > AppConstants.MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + AppConstants.MAX_BATCH_IDS + " ids can be requested at once.");
+        }
+        return reactiveProductService.getProductsByIds(ids);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable String id) {
-        Product product = elasticsearchService.getById(AppConstants.INDEX_PRODUCTS, id, Product.class);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+    public Mono<Product> getProductById(@PathVariable String id) {
+        return reactiveProductService.getProductById(id);
     }
 
     @PutMapping("/{id}")
@@ -52,32 +88,40 @@ public class ProductController {
     }
 
     @GetMapping("/search/{category}")
-    public ResponseEntity<List<Product>> getAllProductByCategory(@PathVariable String category) throws ProductNotFoundException {
-        List<Product> products = productService.getProductByCategory(category);
-        return ResponseEntity.ok(products);
+    public Mono<CursorPage<Product>> getAllProductByCategory(@PathVariable String category,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size) {
+        return reactiveProductService.getProductByCategory(category, cursor, size);
     }
 
     @GetMapping("/searchByPriceRange")
-    public ResponseEntity<List<Product>> searchByPriceRange(@RequestParam double minPrice, @RequestParam double maxPrice) throws ProductNotFoundException {
-        List<Product> products = productService.searchByPriceRange(minPrice, maxPrice);
-        return ResponseEntity.ok(products);
+    public Mono<CursorPage<Product>> searchByPriceRange(@RequestParam double minPrice, @RequestParam double maxPrice,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return reactiveProductService.searchByPriceRange(minPrice, maxPrice, cursor, size);
     }
 
     @GetMapping("/search/fuzzy")
-    public ResponseEntity<List<Product>> fuzzySearch(@RequestParam("query") String searchTerm) throws ProductNotFoundException {
-        List<Product> products = productService.fuzzySearch(searchTerm);
-        return ResponseEntity.ok(products);
+    public Mono<CursorPage<Product>> fuzzySearch(@RequestParam("query") String searchTerm,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return reactiveProductService.fuzzySearch(searchTerm, cursor, size);
     }
 
     @GetMapping("/search/productsByNgram")
-    public ResponseEntity<List<Product>> getProductsByNgram(@RequestParam("query") String searchTerm) throws ProductNotFoundException {
-        List<Product> products = productService.getProductsByNgram(searchTerm);
-        return ResponseEntity.ok(products);
+    public Mono<CursorPage<Product>> getProductsByNgram(@RequestParam("query") String searchTerm,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return reactiveProductService.getProductsByNgram(searchTerm, cursor, size);
     }
 
     @GetMapping("/search/hybrid")
-    public Mono<List<Product>> searchProducts(@RequestParam String query) {
-        return productService.hybridSearch(query);
+    public Mono<List<Product>> searchProducts(@RequestParam String query,
+                                              @RequestParam(required = false) String category,
+                                              @RequestParam(required = false) Double minPrice,
+                                              @RequestParam(required = false) Double maxPrice,
+                                              @RequestParam(required = false) Boolean inStock) {
+        return reactiveProductService.hybridSearch(query, new VectorFilter(category, minPrice, maxPrice, inStock));
     }
 
     @DeleteMapping("/{id}")
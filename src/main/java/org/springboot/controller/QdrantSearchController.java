@@ -3,7 +3,10 @@ package org.springboot.controller;
 import lombok.RequiredArgsConstructor;
 import org.springboot.service.EmbeddingService;
 import org.springboot.service.QdrantSearchService;
+import org.springboot.service.VectorOutboxService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,10 +21,17 @@ public class QdrantSearchController {
 
     private final EmbeddingService embeddingService;
     private final QdrantSearchService qdrantSearchService;
+    private final VectorOutboxService vectorOutboxService;
 
     @GetMapping("/similar")
     public Mono<Map<String, Object>> findSimilarProducts(@RequestParam String query) {
         float[] embedding = embeddingService.generateEmbedding(query);
         return qdrantSearchService.searchSimilarProducts(embedding, 5);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/reindex")
+    public ResponseEntity<Map<String, Long>> reindexProducts() {
+        long enqueued = vectorOutboxService.enqueueAllProducts();
+        return ResponseEntity.accepted().body(Map.of("enqueued", enqueued));
+    }
+}
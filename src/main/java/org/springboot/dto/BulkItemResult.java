@@ -0,0 +1,17 @@
+package org.springboot.dto;
+
+// warning is set on items that were written but need attention; they must not be retried
+public record BulkItemResult(int position, String ean, int status, String error, String warning) {
+
+    public static BulkItemResult created(int position, String ean) {
+        return new BulkItemResult(position, ean, 201, null, null);
+    }
+
+    public static BulkItemResult created(int position, String ean, String warning) {
+        return new BulkItemResult(position, ean, 201, null, warning);
+    }
+
+    public static BulkItemResult failed(int position, String ean, int status, String error) {
+        return new BulkItemResult(position, ean, status, error, null);
+    }
+}
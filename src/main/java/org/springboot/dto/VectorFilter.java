@@ -0,0 +1,29 @@
+package org.springboot.dto;
+
+import org.springboot.model.Product;
+
+import java.util.Locale;
+
+public record VectorFilter(String category, Double minPrice, Double maxPrice, Boolean inStock) {
+
+    public static final VectorFilter NONE = new VectorFilter(null, null, null, null);
+
+    public VectorFilter {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice.");
+        }
+        // Qdrant keyword matching is exact, so categories are compared the way the ES lowercase normalizer stores them
+        category = category == null || category.isBlank() ? null : category.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEmpty() {
+        return category == null && minPrice == null && maxPrice == null && !Boolean.TRUE.equals(inStock);
+    }
+
+    public boolean matches(Product product) {
+        return (category == null || product.getCategory() != null && category.equals(product.getCategory().toLowerCase(Locale.ROOT)))
+                && (minPrice == null || product.getPrice() >= minPrice)
+                && (maxPrice == null || product.getPrice() <= maxPrice)
+                && (!Boolean.TRUE.equals(inStock) || product.getAvailable() > 0);
+    }
+}
@@ -0,0 +1,7 @@
+package org.springboot.exception;
+
+public class DownstreamOverloadedException extends RuntimeException {
+    public DownstreamOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package org.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VectorOutboxEntry {
+
+    public enum Operation {
+        UPSERT,
+        PAYLOAD,
+        DELETE
+    }
+
+    private String ean;
+    private Operation op;
+    private long enqueuedAt;
+    private long nextAttemptAt;
+    private long touchedAt;
+    private int attempts;
+    private String lastError;
+    private Long parkedAt;
+}
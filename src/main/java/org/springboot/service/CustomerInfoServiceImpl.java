@@ -1,9 +1,13 @@
 package org.springboot.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.OpType;
 import co.elastic.clients.elasticsearch._types.Result;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
 import org.springboot.generator.MyUuidGenerator;
 import org.springboot.model.CustomerInfo;
 import org.springboot.utility.AppConstants;
@@ -20,10 +24,12 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
 
     private final ElasticsearchClient client;
     private final ElasticsearchServiceImpl elasticsearchService;
+    private final DocumentNearCache nearCache;
 
-    public CustomerInfoServiceImpl(ElasticsearchClient client, ElasticsearchServiceImpl elasticsearchService) {
+    public CustomerInfoServiceImpl(ElasticsearchClient client, ElasticsearchServiceImpl elasticsearchService, DocumentNearCache nearCache) {
         this.client = client;
         this.elasticsearchService = elasticsearchService;
+        this.nearCache = nearCache;
     }
 
     @Override
@@ -32,31 +38,23 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
         customer.setCustomerId(customerId);
 
         try {
-            boolean indexExists = client.indices().exists(e -> e.index(AppConstants.INDEX_CUSTOMERS)).value();
-
-            if (!indexExists) {
-                client.indices().create(c -> c.index(AppConstants.INDEX_CUSTOMERS));
-            }
-            GetRequest getRequest = new GetRequest.Builder()
-                    .index(AppConstants.INDEX_CUSTOMERS)
-                    .id(customerId)
-                    .build();
-            GetResponse<CustomerInfo> newCustomer = client.get(getRequest, CustomerInfo.class);
-
-            if (newCustomer.found()) {
-                throw new IllegalStateException("Customer with id : " + customerId + " already exists in database.");
-            }
-
             IndexResponse response = client.index(i -> i
                     .index(AppConstants.INDEX_CUSTOMERS)
                     .id(customerId)
+                    .opType(OpType.Create)
                     .document(customer));
+            nearCache.invalidate(response);
 
             if (response.result() == Result.Created) {
                 return customer;
             } else {
                 throw new RuntimeException("Failed to add customer with id: " + customerId);
             }
+        } catch (ElasticsearchException e) {
+            if (e.status() == 409) {
+                throw new IllegalStateException("Customer with id : " + customerId + " already exists in database.");
+            }
+            throw e;
         } catch (IOException e) {
             throw new RuntimeException("Problem with adding customer with id: " + customerId, e);
         }
@@ -65,7 +63,7 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
     @Override
     public CustomerInfo addOrderToCustomer(String customerId, String orderId) {
         try {
-            CustomerInfo customer = elasticsearchService.getById(AppConstants.INDEX_CUSTOMERS, customerId, CustomerInfo.class);
+            CustomerInfo customer = elasticsearchService.getFreshById(AppConstants.INDEX_CUSTOMERS, customerId, CustomerInfo.class);
 
             List<String> orders = Optional.ofNullable(customer.getOrderIds()).orElseGet(ArrayList::new);
             orders.add(orderId);
@@ -81,6 +79,7 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
                     .build();
 
             UpdateResponse<CustomerInfo> response = client.update(request, CustomerInfo.class);
+            nearCache.invalidate(response);
 
             if (response.result().name().equalsIgnoreCase("noop")) {
                 throw new RuntimeException("No update was performed for customer ID: " + customerId);
@@ -95,6 +94,27 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
         }
     }
 
+    public BulkOperation addOrderOperation(String customerId, String orderId) {
+        return customerScriptOperation(customerId, AppConstants.SCRIPT_CUSTOMER_ADD_ORDER, orderId);
+    }
+
+    public BulkOperation removeOrderOperation(String customerId, String orderId) {
+        return customerScriptOperation(customerId, AppConstants.SCRIPT_CUSTOMER_REMOVE_ORDER, orderId);
+    }
+
+    private BulkOperation customerScriptOperation(String customerId, String scriptId, String orderId) {
+        return BulkOperation.of(b -> b
+                .update(u -> u
+                        .index(AppConstants.INDEX_CUSTOMERS)
+                        .id(customerId)
+                        .retryOnConflict(AppConstants.RETRY_ON_CONFLICT)
+                        .action(a -> a
+                                .script(sc -> sc
+                                        .stored(st -> st
+                                                .id(scriptId)
+                                                .params("orderId", JsonData.of(orderId)))))));
+    }
+
     @Override
     public boolean deleteCustomerBuId(String id) {
         DeleteRequest request = new DeleteRequest.Builder()
@@ -105,6 +125,7 @@ public class CustomerInfoServiceImpl implements CustomerInfoService {
         DeleteResponse response;
         try {
             response = client.delete(request);
+            nearCache.invalidate(response);
             if (response.result() == Result.Deleted) {
                 return true;
             } else {
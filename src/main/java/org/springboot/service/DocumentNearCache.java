@@ -0,0 +1,157 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch._types.WriteResponseBase;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * In-JVM copies of documents read by id, tagged with the {@code _primary_term}/{@code _seq_no} they were read at.
+ * A local write leaves a marker with its own version, so a read that was already in flight can not put an older
+ * copy back. A reader that finds the marker and gets an older copy (it joined a coalesced read started before the
+ * write) loads once more, so the writer's own instance reads its writes. That second read started after the write,
+ * so a miss it returns replaces the marker. Each lookup returns a fresh object, callers may modify it.
+ */
+@Component
+public class DocumentNearCache {
+
+    private enum State {
+        FOUND,
+        MISSING,
+        INVALIDATED
+    }
+
+    private record Entry(State state, ObjectNode source, long primaryTerm, long seqNo) {
+
+        boolean isNewerThan(long otherPrimaryTerm, long otherSeqNo) {
+            return primaryTerm > otherPrimaryTerm || primaryTerm == otherPrimaryTerm && seqNo > otherSeqNo;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Cache<String, Entry>> caches = new HashMap<>();
+
+    public DocumentNearCache(NearCacheProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+
+        if (properties.isEnabled()) {
+            properties.getIndices().forEach((index, settings) -> {
+                Cache<String, Entry> cache = Caffeine.newBuilder()
+                        .maximumSize(settings.getMaxEntries())
+                        .expireAfterWrite(settings.getTtl())
+                        .recordStats()
+                        .build();
+                CaffeineCacheMetrics.monitor(meterRegistry, cache, "es-near-cache", "index", index);
+                caches.put(index, cache);
+            });
+        }
+    }
+
+    public boolean isCached(String index) {
+        return caches.containsKey(index);
+    }
+
+    public <T> T get(String index, String id, Class<T> clazz, Supplier<GetResponse<ObjectNode>> loader) throws NoSuchElementException {
+        Cache<String, Entry> cache = caches.get(index);
+        Entry cached = cache.getIfPresent(id);
+        if (cached != null && cached.state() == State.FOUND) {
+            return copy(cached.source(), clazz);
+        }
+        if (cached != null && cached.state() == State.MISSING) {
+            throw notFound(clazz, id);
+        }
+
+        GetResponse<ObjectNode> response = loader.get();
+        if (isOlderThanMarker(cached, response)) {
+            return store(cache, id, loader.get(), cached, clazz);
+        }
+        return store(cache, id, response, null, clazz);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String index, String id, Class<T> clazz, Supplier<CompletableFuture<GetResponse<ObjectNode>>> loader) {
+        Cache<String, Entry> cache = caches.get(index);
+        Entry cached = cache.getIfPresent(id);
+        if (cached != null && cached.state() == State.FOUND) {
+            return CompletableFuture.completedFuture(copy(cached.source(), clazz));
+        }
+        if (cached != null && cached.state() == State.MISSING) {
+            return CompletableFuture.failedFuture(notFound(clazz, id));
+        }
+
+        return loader.get()
+                .thenCompose(response -> isOlderThanMarker(cached, response)
+                        ? loader.get().thenApply(reloaded -> store(cache, id, reloaded, cached, clazz))
+                        : CompletableFuture.completedFuture(store(cache, id, response, null, clazz)));
+    }
+
+    // A miss after a delete is correct, but it can not be told apart from a read that started before a create
+    private boolean isOlderThanMarker(Entry cached, GetResponse<ObjectNode> response) {
+        return cached != null && cached.state() == State.INVALIDATED
+                && (!response.found() || cached.isNewerThan(response.primaryTerm(), response.seqNo()));
+    }
+
+    // marker is the write marker a reload was issued after, a miss may replace it as long as no later write came in
+    private <T> T store(Cache<String, Entry> cache, String id, GetResponse<ObjectNode> response, Entry marker, Class<T> clazz) {
+        cache.asMap().compute(id, (key, current) -> {
+            if (!response.found()) {
+                // A miss has no version of its own, so it never replaces a loaded copy or a marker of a write it may predate
+                return current == null || current == marker ? new Entry(State.MISSING, null, -1, -1) : current;
+            }
+            Entry loaded = new Entry(State.FOUND, response.source(), response.primaryTerm(), response.seqNo());
+            return current == null || !current.isNewerThan(loaded.primaryTerm(), loaded.seqNo()) ? loaded : current;
+        });
+
+        if (!response.found()) {
+            throw notFound(clazz, id);
+        }
+        return copy(response.source(), clazz);
+    }
+
+    public void invalidate(BulkResponse response) {
+        for (BulkResponseItem item : response.items()) {
+            if (item.error() == null && item.seqNo() != null && item.primaryTerm() != null) {
+                invalidate(item.index(), item.id(), item.primaryTerm(), item.seqNo());
+            }
+        }
+    }
+
+    public void invalidate(WriteResponseBase response) {
+        invalidate(response.index(), response.id(), response.primaryTerm(), response.seqNo());
+    }
+
+    private void invalidate(String index, String id, long primaryTerm, long seqNo) {
+        Cache<String, Entry> cache = caches.get(index);
+        if (cache == null) {
+            return;
+        }
+        Entry marker = new Entry(State.INVALIDATED, null, primaryTerm, seqNo);
+        cache.asMap().compute(id, (key, current) -> current != null && current.isNewerThan(primaryTerm, seqNo) ? current : marker);
+    }
+
+    private <T> T copy(ObjectNode source, Class<T> clazz) {
+        try {
+            return objectMapper.treeToValue(source, clazz);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Problem with reading cached " + clazz.getSimpleName(), e);
+        }
+    }
+
+    private NoSuchElementException notFound(Class<?> clazz, String id) {
+        return new NoSuchElementException(clazz.getSimpleName() + " with ID: " + id + " not found");
+    }
+}
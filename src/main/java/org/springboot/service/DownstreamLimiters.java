@@ -0,0 +1,103 @@
+package org.springboot.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springboot.config.properties.DownstreamLimitProperties;
+import org.springboot.utility.AdaptiveLimiter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One {@link AdaptiveLimiter} per downstream, so a slow Elasticsearch, OpenAI or Qdrant only sheds its own callers.
+ * Limits, in-flight and queued calls are exported as {@code downstream.*{downstream=...}}.
+ */
+@Component
+public class DownstreamLimiters {
+
+    private final DownstreamLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public DownstreamLimiters(DownstreamLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveLimiter limiter(String downstream) {
+        return limiters.computeIfAbsent(downstream, this::create);
+    }
+
+    // Runs a blocking call on the caller's thread once a permit is granted, any exception counts as a drop
+    public <T> T call(String downstream, Supplier<T> call) {
+        AdaptiveLimiter.Permit permit = limiter(downstream).acquire();
+        try {
+            T result = call.get();
+            permit.success();
+            return result;
+        } catch (RuntimeException | Error e) {
+            permit.dropped();
+            throw e;
+        }
+    }
+
+    // Non-blocking variant, fails right away when the downstream is at its limit
+    public <T> Mono<T> limit(String downstream, Supplier<Mono<T>> call) {
+        AdaptiveLimiter limiter = limiter(downstream);
+        return Mono.defer(() -> {
+            AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                return Mono.error(limiter.overloaded());
+            }
+            return call.get()
+                    .doOnSuccess(result -> permit.success())
+                    .doOnError(e -> permit.dropped())
+                    .doOnCancel(permit::cancelled);
+        });
+    }
+
+    // Throttled and 5xx responses lower the limit like failures do; the permit is released once headers arrive
+    public ExchangeFilterFunction exchangeFilter(String downstream) {
+        AdaptiveLimiter limiter = limiter(downstream);
+        return (request, next) -> Mono.defer(() -> {
+            AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                return Mono.error(limiter.overloaded());
+            }
+            return next.exchange(request)
+                    .doOnSuccess(response -> {
+                        if (response != null && (response.statusCode().value() == 429 || response.statusCode().is5xxServerError())) {
+                            permit.dropped();
+                        } else {
+                            permit.success();
+                        }
+                    })
+                    .doOnError(e -> permit.dropped())
+                    .doOnCancel(permit::cancelled);
+        });
+    }
+
+    private AdaptiveLimiter create(String downstream) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(downstream,
+                properties.getLimits().getOrDefault(downstream, new DownstreamLimitProperties.Limit()));
+
+        Gauge.builder("downstream.limit", limiter, AdaptiveLimiter::getLimit)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("downstream.inflight", limiter, AdaptiveLimiter::getInFlight)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        Gauge.builder("downstream.queued", limiter, AdaptiveLimiter::getQueued)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        FunctionCounter.builder("downstream.rejected", limiter, AdaptiveLimiter::rejectedCount)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -1,13 +1,36 @@
 package org.springboot.service;
 
-import java.util.List;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import org.springboot.dto.CursorPage;
+
+import java.util.Collection;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 
 public interface ElasticsearchService {
 
     public <T> T getById(String index, String id, Class<T> clazz) throws NoSuchElementException;
 
-    public <T> List<T> getAll(String index, Class<T> clazz);
+    // Always reads from Elasticsearch, for callers that write back what they read
+    public <T> T getFreshById(String index, String id, Class<T> clazz) throws NoSuchElementException;
+
+    public <T> Map<String, T> getByIds(String index, Collection<String> ids, Class<T> clazz);
+
+    public <T> CursorPage<T> getPage(String index, String cursor, Integer size, Class<T> clazz);
+
+    public <T> CursorPage<T> searchPage(String index, Query query, String cursor, Integer size, Class<T> clazz);
+
+    // Non-blocking variants on ElasticsearchAsyncClient, failures complete the future with the same exceptions as above
+    public <T> CompletableFuture<T> getByIdAsync(String index, String id, Class<T> clazz);
+
+    public <T> CompletableFuture<Map<String, T>> getByIdsAsync(String index, Collection<String> ids, Class<T> clazz);
+
+    public <T> CompletableFuture<CursorPage<T>> getPageAsync(String index, String cursor, Integer size, Class<T> clazz);
+
+    public <T> CompletableFuture<CursorPage<T>> searchPageAsync(String index, Query query, String cursor, Integer size, Class<T> clazz);
+
+    public void closeCursor(String cursor);
 
     public <T> boolean deleteById(String index, String id) throws NoSuchElementException;
 }
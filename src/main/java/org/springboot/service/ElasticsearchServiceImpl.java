@@ -1,26 +1,89 @@
 package org.springboot.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.Result;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetError;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonpMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.json.stream.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.utility.SearchCursor;
+import org.springboot.utility.SingleFlight;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class ElasticsearchServiceImpl implements ElasticsearchService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchServiceImpl.class);
+    private static final Query MATCH_ALL = Query.of(q -> q.matchAll(m -> m));
+
     private final ElasticsearchClient client;
+    private final ElasticsearchAsyncClient asyncClient;
+    private final PaginationProperties paginationProperties;
+    private final DocumentNearCache nearCache;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<String, GetResponse<ObjectNode>> getByIdFlight = new SingleFlight<>();
 
-    public ElasticsearchServiceImpl(ElasticsearchClient client) {
+    public ElasticsearchServiceImpl(ElasticsearchClient client, ElasticsearchAsyncClient asyncClient, PaginationProperties paginationProperties,
+                                    DocumentNearCache nearCache, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.client = client;
+        this.asyncClient = asyncClient;
+        this.paginationProperties = paginationProperties;
+        this.nearCache = nearCache;
+        this.objectMapper = objectMapper;
+        FunctionCounter.builder("singleflight.coalesced", getByIdFlight, SingleFlight::coalescedCount)
+                .tag("operation", "getById")
+                .register(meterRegistry);
     }
 
     public <T> T getById(String index, String id, Class<T> clazz) throws NoSuchElementException {
+        if (nearCache.isCached(index)) {
+            return nearCache.get(index, id, clazz, () -> fetch(index, id));
+        }
+
+        return toValue(fetch(index, id), id, clazz);
+    }
+
+    public <T> CompletableFuture<T> getByIdAsync(String index, String id, Class<T> clazz) {
+        if (nearCache.isCached(index)) {
+            return nearCache.getAsync(index, id, clazz, () -> fetchAsync(index, id));
+        }
+        return fetchAsync(index, id).thenApply(response -> toValue(response, id, clazz));
+    }
+
+    private <T> T toValue(GetResponse<ObjectNode> response, String id, Class<T> clazz) {
+        if (!response.found()) {
+            throw new NoSuchElementException(clazz.getSimpleName() + " with ID: " + id + " not found");
+        }
+        try {
+            // Coalesced callers share one response, each maps its own copy
+            return objectMapper.treeToValue(response.source(), clazz);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Problem reading " + clazz.getSimpleName() + " with ID: " + id, e);
+        }
+    }
+
+    public <T> T getFreshById(String index, String id, Class<T> clazz) throws NoSuchElementException {
         GetRequest request = new GetRequest.Builder()
                 .index(index)
                 .id(id)
@@ -38,23 +101,220 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         }
     }
 
-    public <T> List<T> getAll(String index, Class<T> clazz) {
-        SearchRequest request = new SearchRequest.Builder()
+    // Concurrent lookups of the same document share one GET, getFreshById never joins a read that started before it
+    private GetResponse<ObjectNode> fetch(String index, String id) {
+        return getByIdFlight.execute(index + "/" + id, () -> {
+            try {
+                return client.get(g -> g
+                        .index(index)
+                        .id(id), ObjectNode.class);
+            } catch (IOException e) {
+                throw new RuntimeException("Problem finding document with ID: " + id + " in index: " + index, e);
+            }
+        });
+    }
+
+    private CompletableFuture<GetResponse<ObjectNode>> fetchAsync(String index, String id) {
+        return getByIdFlight.executeAsync(index + "/" + id, () -> asyncClient.get(g -> g
                 .index(index)
-                .size(100)
-                .build();
+                .id(id), ObjectNode.class));
+    }
+
+    public <T> Map<String, T> getByIds(String index, Collection<String> ids, Class<T> clazz) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinctIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
         try {
-            SearchResponse<T> response = client.search(request, clazz);
-            List<T> result = new ArrayList<>();
-            for (Hit<T> hit : response.hits().hits()) {
-                result.add(hit.source());
+            MgetResponse<T> response = client.mget(m -> m
+                    .index(index)
+                    .ids(distinctIds), clazz);
+            return toMap(response, clazz);
+        } catch (IOException e) {
+            throw new RuntimeException("Problem finding " + clazz.getSimpleName() + " with IDs: " + distinctIds, e);
+        }
+    }
+
+    public <T> CompletableFuture<Map<String, T>> getByIdsAsync(String index, Collection<String> ids, Class<T> clazz) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinctIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        return asyncClient.mget(m -> m
+                        .index(index)
+                        .ids(distinctIds), clazz)
+                .thenApply(response -> toMap(response, clazz));
+    }
+
+    private <T> Map<String, T> toMap(MgetResponse<T> response, Class<T> clazz) {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (MultiGetResponseItem<T> item : response.docs()) {
+            if (item.isFailure()) {
+                MultiGetError failure = item.failure();
+                throw new RuntimeException("Problem finding " + clazz.getSimpleName() + " with ID: " + failure.id() + ": " + failure.error().reason());
             }
-            return result;
+            if (item.result().found()) {
+                result.put(item.result().id(), item.result().source());
+            }
+        }
+        return result;
+    }
+
+    public <T> CursorPage<T> getPage(String index, String cursor, Integer size, Class<T> clazz) {
+        return page(index, MATCH_ALL, false, cursor, size, clazz);
+    }
+
+    public <T> CursorPage<T> searchPage(String index, Query query, String cursor, Integer size, Class<T> clazz) {
+        return page(index, query, true, cursor, size, clazz);
+    }
+
+    public <T> CompletableFuture<CursorPage<T>> getPageAsync(String index, String cursor, Integer size, Class<T> clazz) {
+        return pageAsync(index, MATCH_ALL, false, cursor, size, clazz);
+    }
+
+    public <T> CompletableFuture<CursorPage<T>> searchPageAsync(String index, Query query, String cursor, Integer size, Class<T> clazz) {
+        return pageAsync(index, query, true, cursor, size, clazz);
+    }
+
+    private <T> CursorPage<T> page(String index, Query query, boolean byScore, String cursor, Integer size, Class<T> clazz) {
+        int pageSize = resolvePageSize(size);
+        String scope = scope(index, query, byScore);
+        SearchCursor position = cursor == null ? null : SearchCursor.decode(cursor, scope);
+
+        String pitId = null;
+        try {
+            pitId = position == null ? openPointInTime(index) : position.pitId();
+            SearchResponse<T> response = client.search(pageRequest(query, byScore, pitId, position, pageSize), clazz);
+            return toPage(response, pitId, pageSize, scope);
+        } catch (ElasticsearchException e) {
+            closeOpenedFor(position, pitId);
+            throw expiredCursorOr(e);
         } catch (IOException e) {
+            closeOpenedFor(position, pitId);
             throw new RuntimeException("Error while processing the request for index " + index + ": " + e.getMessage(), e);
         }
     }
 
+    private <T> CompletableFuture<CursorPage<T>> pageAsync(String index, Query query, boolean byScore, String cursor, Integer size, Class<T> clazz) {
+        int pageSize = resolvePageSize(size);
+        String scope = scope(index, query, byScore);
+        SearchCursor position = cursor == null ? null : SearchCursor.decode(cursor, scope);
+
+        CompletableFuture<String> pitId = position != null
+                ? CompletableFuture.completedFuture(position.pitId())
+                : asyncClient.openPointInTime(o -> o
+                        .index(index)
+                        .keepAlive(k -> k.time(paginationProperties.getKeepAlive())))
+                .thenApply(OpenPointInTimeResponse::id);
+
+        return pitId
+                .thenCompose(pit -> asyncClient.search(pageRequest(query, byScore, pit, position, pageSize), clazz)
+                        .thenApply(response -> toPage(response, pit, pageSize, scope))
+                        .whenComplete((page, error) -> {
+                            if (error != null) {
+                                closeOpenedFor(position, pit);
+                            }
+                        }))
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof ElasticsearchException e) {
+                        return CompletableFuture.failedFuture(expiredCursorOr(e));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    // Every page, the first included, reads the same point in time in _shard_doc order (after _score for searches) and
+    // continues with search_after, so writes and merges between requests neither repeat nor skip documents
+    private SearchRequest pageRequest(Query query, boolean byScore, String pitId, SearchCursor position, int pageSize) {
+        SearchRequest.Builder request = new SearchRequest.Builder()
+                .pit(p -> p
+                        .id(pitId)
+                        .keepAlive(k -> k.time(paginationProperties.getKeepAlive())))
+                .query(query)
+                .size(pageSize)
+                .trackTotalHits(t -> t.enabled(false));
+        if (byScore) {
+            request.sort(s -> s.score(sc -> sc.order(SortOrder.Desc)));
+        }
+        request.sort(s -> s.field(f -> f.field("_shard_doc")));
+        if (position != null) {
+            request.searchAfter(position.toFieldValues());
+        }
+        return request.build();
+    }
+
+    // A short page is the last one, its PIT is closed right away instead of waiting for the keep-alive
+    private <T> CursorPage<T> toPage(SearchResponse<T> response, String pitId, int pageSize, String scope) {
+        List<Hit<T>> hits = response.hits().hits();
+        List<T> items = new ArrayList<>(hits.size());
+        for (Hit<T> hit : hits) {
+            items.add(hit.source());
+        }
+
+        String currentPitId = Optional.ofNullable(response.pitId()).orElse(pitId);
+        if (hits.size() < pageSize) {
+            closePointInTime(currentPitId);
+            return new CursorPage<>(items, null);
+        }
+        return new CursorPage<>(items, SearchCursor.of(currentPitId, hits.get(hits.size() - 1).sort(), scope).encode());
+    }
+
+    // A PIT opened for a first page that then failed is closed, a cursor's PIT stays open so the caller can retry
+    private void closeOpenedFor(SearchCursor position, String pitId) {
+        if (position == null && pitId != null) {
+            closePointInTime(pitId);
+        }
+    }
+
+    private String scope(String index, Query query, boolean byScore) {
+        StringWriter json = new StringWriter();
+        JsonpMapper mapper = client._jsonpMapper();
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(json)) {
+            query.serialize(generator, mapper);
+        }
+        return SearchCursor.scope(index, String.valueOf(byScore), json.toString());
+    }
+
+    private RuntimeException expiredCursorOr(ElasticsearchException e) {
+        if (e.status() == 404) {
+            return new IllegalArgumentException("Cursor has expired, start again without a cursor.", e);
+        }
+        return e;
+    }
+
+    public void closeCursor(String cursor) {
+        closePointInTime(SearchCursor.decode(cursor, null).pitId());
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return paginationProperties.getDefaultPageSize();
+        }
+        if (size < 1 || size > paginationProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + paginationProperties.getMaxPageSize());
+        }
+        return size;
+    }
+
+    private String openPointInTime(String index) throws IOException {
+        return client.openPointInTime(o -> o
+                .index(index)
+                .keepAlive(k -> k.time(paginationProperties.getKeepAlive()))).id();
+    }
+
+    private void closePointInTime(String pitId) {
+        // Nobody waits for the close, a PIT that could not be closed expires on its own
+        asyncClient.closePointInTime(c -> c.id(pitId))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        logger.warn("Point in time could not be closed, it will expire on its own", error);
+                    }
+                });
+    }
+
     public <T> boolean deleteById(String index, String id) throws NoSuchElementException {
         DeleteRequest request = new DeleteRequest.Builder()
                 .index(index)
@@ -64,6 +324,7 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         DeleteResponse response = null;
         try {
             response = client.delete(request);
+            nearCache.invalidate(response);
             if (response.result() == Result.Deleted) {
                 return true;
             } else {
@@ -0,0 +1,111 @@
+package org.springboot.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springboot.config.properties.EmbeddedVectorProperties;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import org.springboot.utility.AppConstants;
+import org.springboot.utility.HnswIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+@Service
+@ConditionalOnProperty(prefix = "vector-store", name = "backend", havingValue = "embedded")
+public class EmbeddedVectorSearchServiceImpl implements QdrantSearchService {
+
+    private final HnswIndex index;
+    private final EmbeddedVectorProperties properties;
+    private final ElasticsearchServiceImpl elasticsearchService;
+
+    public EmbeddedVectorSearchServiceImpl(EmbeddedVectorProperties properties, ElasticsearchServiceImpl elasticsearchService) throws IOException {
+        this.properties = properties;
+        this.elasticsearchService = elasticsearchService;
+        this.index = HnswIndex.open(Path.of(properties.getDirectory()), properties.getDimensions(), properties.getM(),
+                properties.getEfConstruction(), properties.getInitialCapacity());
+    }
+
+    @Override
+    public void upsertPoints(List<Product> products, List<float[]> embeddings) {
+        if (products.size() != embeddings.size()) {
+            throw new IllegalArgumentException("Expected " + products.size() + " embeddings, got " + embeddings.size());
+        }
+        for (int i = 0; i < products.size(); i++) {
+            index.add(Long.parseLong(products.get(i).getEan()), embeddings.get(i));
+        }
+        flush();
+    }
+
+    @Override
+    public void deletePoints(Collection<String> eans) {
+        for (String ean : eans) {
+            index.remove(Long.parseLong(ean));
+        }
+        flush();
+    }
+
+    @Override
+    public void setPayloads(List<Product> products) {
+        // The embedded index keeps vectors only, there is no payload to update
+    }
+
+    @Override
+    public Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit) {
+        return Mono.fromSupplier(() -> {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (HnswIndex.Result hit : index.search(vector, limit, properties.getEfSearch())) {
+                result.add(Map.of("id", hit.id(), "score", hit.score()));
+            }
+            return Map.of("result", result);
+        });
+    }
+
+    @Override
+    public Mono<List<String>> searchByEmbedding(float[] embedding, int topK, VectorFilter filter) {
+        if (filter.isEmpty()) {
+            return Mono.fromSupplier(() -> search(embedding, topK));
+        }
+        return filteredSearch(embedding, topK, filter, Math.min(topK * properties.getFilterOverFetch(), properties.getMaxFilterCandidates()));
+    }
+
+    // The index holds no payload, so the filter is checked on the products of an over-fetched candidate list, which is
+    // widened until topK of them match, the graph has no more candidates or max-filter-candidates is reached
+    private Mono<List<String>> filteredSearch(float[] embedding, int topK, VectorFilter filter, int candidates) {
+        return Mono.fromSupplier(() -> search(embedding, candidates))
+                .flatMap(ids -> Mono.fromFuture(() -> elasticsearchService.getByIdsAsync(AppConstants.INDEX_PRODUCTS, ids, Product.class))
+                        .flatMap(products -> {
+                            List<String> matching = ids.stream()
+                                    .filter(id -> products.containsKey(id) && filter.matches(products.get(id)))
+                                    .limit(topK)
+                                    .toList();
+                            if (matching.size() == topK || ids.size() < candidates || candidates >= properties.getMaxFilterCandidates()) {
+                                return Mono.just(matching);
+                            }
+                            int widened = (int) Math.min((long) candidates * properties.getFilterOverFetch(), properties.getMaxFilterCandidates());
+                            return filteredSearch(embedding, topK, filter, widened);
+                        }));
+    }
+
+    private List<String> search(float[] embedding, int k) {
+        return index.search(embedding, k, properties.getEfSearch()).stream()
+                .map(hit -> String.valueOf(hit.id()))
+                .toList();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        index.close();
+    }
+
+    private void flush() {
+        try {
+            index.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with persisting the embedded vector index", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.springboot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.EmbeddingBatchProperties;
+import org.springboot.exception.DownstreamOverloadedException;
+import org.springboot.utility.AppConstants;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent embedding requests for up to {@code maxWait} or {@code maxBatchSize} texts and sends them
+ * to the model as one call. Each caller gets a future that completes with its own vector. When the queue or the
+ * batches waiting for a model call are full, callers fail fast with {@link DownstreamOverloadedException}.
+ */
+public class EmbeddingBatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingBatcher.class);
+
+    private record Pending(String text, CompletableFuture<float[]> result) {
+    }
+
+    private final Function<List<String>, List<float[]>> batchEmbedder;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final ExecutorService dispatcher;
+    private final Thread collector;
+
+    private volatile boolean running = true;
+
+    public EmbeddingBatcher(Function<List<String>, List<float[]>> batchEmbedder, EmbeddingBatchProperties properties) {
+        this.batchEmbedder = batchEmbedder;
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+
+        // Model calls block on HTTP, virtual threads keep that from tying up platform threads
+        int maxConcurrentBatches = Math.max(1, properties.getMaxConcurrentBatches());
+        this.dispatcher = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getMaxQueuedBatches())),
+                Thread.ofVirtual().name("embedding-dispatch-", 1).factory());
+        this.collector = new Thread(this::collect, "embedding-batcher");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    public CompletableFuture<float[]> submit(String text) {
+        CompletableFuture<float[]> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new RejectedExecutionException("Embedding batcher is shut down"));
+        } else if (!queue.offer(new Pending(text, result))) {
+            result.completeExceptionally(overloaded());
+        }
+        return result;
+    }
+
+    private void collect() {
+        while (running) {
+            try {
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        try {
+            dispatcher.execute(() -> embed(batch));
+        } catch (RejectedExecutionException e) {
+            RuntimeException failure = running ? overloaded() : e;
+            batch.forEach(pending -> pending.result().completeExceptionally(failure));
+        }
+    }
+
+    private static DownstreamOverloadedException overloaded() {
+        return new DownstreamOverloadedException(AppConstants.DOWNSTREAM_OPENAI + " is overloaded, try again later.");
+    }
+
+    private void embed(List<Pending> batch) {
+        // The same text requested twice in one window is sent to the model once
+        Map<String, List<CompletableFuture<float[]>>> waiters = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            waiters.computeIfAbsent(pending.text(), text -> new ArrayList<>()).add(pending.result());
+        }
+        List<String> texts = new ArrayList<>(waiters.keySet());
+
+        try {
+            List<float[]> embeddings = batchEmbedder.apply(texts);
+            for (int i = 0; i < texts.size(); i++) {
+                float[] embedding = embeddings.get(i);
+                List<CompletableFuture<float[]>> futures = waiters.get(texts.get(i));
+                for (int j = 0; j < futures.size(); j++) {
+                    futures.get(j).complete(j == 0 ? embedding : embedding.clone());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Embedding batch of {} texts failed", texts.size(), e);
+            waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        dispatcher.shutdown();
+
+        List<Pending> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> pending.result().completeExceptionally(new RejectedExecutionException("Embedding batcher is shut down")));
+    }
+}
@@ -2,7 +2,14 @@ package org.springboot.service;
 
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public interface EmbeddingService {
     float[] generateEmbedding(String content);
+
+    CompletableFuture<float[]> generateEmbeddingAsync(String content);
+
+    List<float[]> generateEmbeddings(List<String> contents);
 }
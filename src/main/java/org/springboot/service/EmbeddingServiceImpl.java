@@ -1,30 +1,130 @@
 package org.springboot.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springboot.config.properties.EmbeddingBatchProperties;
+import org.springboot.config.properties.EmbeddingCacheProperties;
+import org.springboot.exception.DownstreamOverloadedException;
+import org.springboot.utility.AppConstants;
+import org.springboot.utility.SingleFlight;
+import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class EmbeddingServiceImpl implements EmbeddingService {
 
     private final EmbeddingModel embeddingModel;
+    private final DownstreamLimiters limiters;
+    private final String modelName;
+    private final AsyncCache<String, float[]> cache;
+    private final EmbeddingBatcher batcher;
+    private final SingleFlight<String, float[]> flight = new SingleFlight<>();
 
-    public EmbeddingServiceImpl(EmbeddingModel embeddingModel) {
+    public EmbeddingServiceImpl(EmbeddingModel embeddingModel, EmbeddingCacheProperties cacheProperties, EmbeddingBatchProperties batchProperties,
+                                DownstreamLimiters limiters, MeterRegistry meterRegistry, @Value("${spring.ai.openai.embedding.model:text-embedding-3-small}") String modelName,
+                                @Value("${spring.ai.openai.embedding.options.dimensions:0}") int dimensions) {
         this.embeddingModel = embeddingModel;
+        this.limiters = limiters;
+        // Shortened vectors of the same model must not be served from the cache of the full-size ones
+        this.modelName = dimensions > 0 ? modelName + "@" + dimensions : modelName;
+        this.batcher = new EmbeddingBatcher(this::generateEmbeddings, batchProperties);
+        FunctionCounter.builder("singleflight.coalesced", flight, SingleFlight::coalescedCount)
+                .tag("operation", "embedding")
+                .register(meterRegistry);
+
+        if (cacheProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.getMaxEntries())
+                    .expireAfterWrite(cacheProperties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "embeddings");
+        } else {
+            this.cache = null;
+        }
     }
 
     public float[] generateEmbedding(String text) {
         try {
-            if (text == null || text.isBlank()) {
-                throw new IllegalArgumentException("Text for embedding must not be null or empty.");
+            return generateEmbeddingAsync(text).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<float[]> generateEmbeddingAsync(String text) {
+        if (text == null || text.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Text for embedding must not be null or empty."));
+        }
+        String normalized = normalize(text);
+        String key = cacheKey(normalized);
+
+        // Identical concurrent requests share one pending vector, with or without the cache; callers get their own copy
+        return flight.executeAsync(key, () -> cache == null
+                        ? batcher.submit(normalized)
+                        : cache.get(key, (cacheKey, executor) -> batcher.submit(normalized)))
+                .thenApply(float[]::clone);
+    }
+
+    @Override
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        try {
+            EmbeddingResponse response = limiters.call(AppConstants.DOWNSTREAM_OPENAI, () -> embeddingModel.embedForResponse(texts));
+
+            float[][] embeddings = new float[texts.size()][];
+            for (Embedding embedding : response.getResults()) {
+                embeddings[embedding.getIndex()] = embedding.getOutput();
             }
-            EmbeddingResponse response = embeddingModel.embedForResponse(List.of(text));
-            return response.getResults().get(0).getOutput();
+            return Arrays.asList(embeddings);
+        } catch (DownstreamOverloadedException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Failed to generate embedding for text: " + text, e);
+            throw new RuntimeException("Failed to generate embeddings for " + texts.size() + " texts", e);
         }
     }
-}
 
+    @PreDestroy
+    public void shutdown() {
+        batcher.close();
+    }
+
+    private String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+    }
+
+    private String cacheKey(String normalizedText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalizedText.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
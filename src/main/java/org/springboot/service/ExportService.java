@@ -0,0 +1,16 @@
+package org.springboot.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+public interface ExportService {
+
+    void exportIndex(String index, Set<String> excludedFields, OutputStream out) throws IOException;
+
+    // Writes the export to the response as an async task with its own timeout, other async requests keep the default
+    WebAsyncTask<Void> exportTask(String index, Set<String> excludedFields, HttpServletResponse response);
+}
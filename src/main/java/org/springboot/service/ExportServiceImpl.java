@@ -0,0 +1,64 @@
+package org.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.dto.CursorPage;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final ElasticsearchServiceImpl elasticsearchService;
+    private final PaginationProperties paginationProperties;
+    private final ObjectMapper objectMapper;
+
+    public ExportServiceImpl(ElasticsearchServiceImpl elasticsearchService, PaginationProperties paginationProperties, ObjectMapper objectMapper) {
+        this.elasticsearchService = elasticsearchService;
+        this.paginationProperties = paginationProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void exportIndex(String index, Set<String> excludedFields, OutputStream out) throws IOException {
+        String cursor = null;
+        boolean completed = false;
+
+        try {
+            do {
+                CursorPage<ObjectNode> page = elasticsearchService.getPage(index, cursor, paginationProperties.getExportPageSize(), ObjectNode.class);
+                cursor = page.nextCursor();
+
+                for (ObjectNode document : page.items()) {
+                    document.remove(excludedFields);
+                    out.write(objectMapper.writeValueAsBytes(document));
+                    out.write(NEW_LINE);
+                }
+                out.flush();
+            } while (cursor != null);
+            completed = true;
+        } finally {
+            if (!completed && cursor != null) {
+                elasticsearchService.closeCursor(cursor);
+            }
+        }
+    }
+
+    @Override
+    public WebAsyncTask<Void> exportTask(String index, Set<String> excludedFields, HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(paginationProperties.getExportTimeout().toMillis(), () -> {
+            exportIndex(index, excludedFields, response.getOutputStream());
+            return null;
+        });
+    }
+}
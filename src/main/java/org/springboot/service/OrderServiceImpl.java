@@ -1,87 +1,164 @@
 package org.springboot.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.Result;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springboot.dto.OrderDto;
 import org.springboot.exception.ProductNotFoundException;
 import org.springboot.generator.MyUuidGenerator;
-import org.springboot.model.CustomerInfo;
 import org.springboot.model.Order;
 import org.springboot.model.Product;
 import org.springboot.utility.AppConstants;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+
     private final ElasticsearchClient client;
     private final ProductServiceImpl productService;
     private final ElasticsearchServiceImpl elasticsearchService;
     private final CustomerInfoServiceImpl customerService;
+    private final DocumentNearCache nearCache;
+    private final Counter failedRestocks;
 
-    public OrderServiceImpl(ElasticsearchClient client, ProductServiceImpl productService, ElasticsearchServiceImpl elasticsearchService, CustomerInfoServiceImpl customerService) {
+    public OrderServiceImpl(ElasticsearchClient client, ProductServiceImpl productService, ElasticsearchServiceImpl elasticsearchService,
+                            CustomerInfoServiceImpl customerService, DocumentNearCache nearCache, MeterRegistry meterRegistry) {
         this.client = client;
         this.productService = productService;
         this.elasticsearchService = elasticsearchService;
         this.customerService = customerService;
+        this.nearCache = nearCache;
+        this.failedRestocks = Counter.builder("orders.stock.restock.failed")
+                .description("Products whose stock was not restored after their order was deleted")
+                .register(meterRegistry);
     }
 
     @Override
-    public Order addOrder(String customerId, List<String> productEans) {
-        validateCustomer(customerId);
-        double totalAmount = getTotalAmount(productEans);
+    public Order addOrder(String customerId, List<String> productEans) throws ProductNotFoundException {
+        if (productEans == null || productEans.isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one product.");
+        }
+
+        Map<String, Integer> quantities = countByEan(productEans);
+        String orderId = MyUuidGenerator.generateUuid();
+
+        List<BulkOperation> operations = new ArrayList<>();
+        quantities.forEach((ean, quantity) -> operations.add(productService.sellOperation(ean, quantity)));
+        operations.add(customerService.addOrderOperation(customerId, orderId));
+        operations.addAll(productService.payloadRefreshOperations(quantities.keySet()));
+
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        boolean customerUpdated = false;
 
         try {
-            String orderId = MyUuidGenerator.generateUuid();
-            Order order = new Order(orderId, customerId, totalAmount, productEans);
+            BulkResponse response = client.bulk(b -> b.operations(operations));
+            nearCache.invalidate(response);
+            List<BulkResponseItem> items = response.items();
+
+            double totalAmount = 0;
+            Exception failure = null;
+
+            int position = 0;
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                BulkResponseItem item = items.get(position++);
+                String ean = entry.getKey();
+
+                if (item.error() != null) {
+                    if (failure == null) {
+                        failure = item.status() == 404
+                                ? new ProductNotFoundException("Product with EAN " + ean + " not found")
+                                : new RuntimeException("Failed to reserve product with EAN " + ean + ": " + item.error().reason());
+                    }
+                } else if ("noop".equals(item.result())) {
+                    if (failure == null) {
+                        failure = new IllegalStateException("No stock available for EAN: " + ean);
+                    }
+                } else {
+                    reserved.put(ean, entry.getValue());
+                    totalAmount += item.get().source().get("price").to(Double.class) * entry.getValue();
+                }
+            }
 
-            customerService.addOrderToCustomer(customerId, orderId);
+            BulkResponseItem customerItem = items.get(position);
+            customerUpdated = customerItem.error() == null;
+            if (!customerUpdated && failure == null) {
+                failure = customerItem.status() == 404
+                        ? new NoSuchElementException("Customer with ID: " + customerId + " not found")
+                        : new RuntimeException("Failed to add order to customer " + customerId + ": " + customerItem.error().reason());
+            }
+
+            if (failure != null) {
+                rollback(reserved, customerUpdated ? customerId : null, orderId);
+                if (failure instanceof ProductNotFoundException notFound) {
+                    throw notFound;
+                }
+                throw (RuntimeException) failure;
+            }
+
+            Order order = new Order(orderId, customerId, totalAmount, productEans);
             saveOrder(order);
 
             return order;
-        } catch (IOException e) {
+        } catch (IOException | ElasticsearchException e) {
+            rollback(reserved, customerUpdated ? customerId : null, orderId);
             throw new RuntimeException("Error while processing the order for customerId: " + customerId, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error occurred while processing the order", e);
         }
     }
 
-    private void validateCustomer(String customerId) {
-        Optional.ofNullable(elasticsearchService.getById(AppConstants.INDEX_CUSTOMERS, customerId, CustomerInfo.class))
-                .orElseThrow(() -> new NoSuchElementException("Customer with ID: " + customerId + " not found"));
+    private Map<String, Integer> countByEan(List<String> productEans) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (String ean : productEans) {
+            quantities.merge(ean, 1, Integer::sum);
+        }
+        return quantities;
     }
 
-    private double getTotalAmount(List<String> productEans) {
-        return productEans.stream()
-                .map(ean -> {
-                    try {
-                        return productService.soldProduct(ean);
-                    } catch (ProductNotFoundException e) {
-                        throw new RuntimeException("Product with EAN " + ean + " not found", e);
-                    }
-                })
-                .mapToDouble(Product::getPrice)
-                .sum();
+    private void rollback(Map<String, Integer> reserved, String customerId, String orderId) {
+        List<BulkOperation> operations = new ArrayList<>();
+        reserved.forEach((ean, quantity) -> operations.add(productService.restockOperation(ean, quantity)));
+        if (customerId != null) {
+            operations.add(customerService.removeOrderOperation(customerId, orderId));
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
+        operations.addAll(productService.payloadRefreshOperations(reserved.keySet()));
+
+        try {
+            BulkResponse response = client.bulk(b -> b.operations(operations));
+            nearCache.invalidate(response);
+            if (response.errors()) {
+                logger.error("Rollback of order {} finished with errors: {}", orderId, response.items().stream()
+                        .filter(item -> item.error() != null)
+                        .map(item -> item.id() + ": " + item.error().reason())
+                        .collect(Collectors.joining(", ")));
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Rollback of order {} failed", orderId, e);
+        }
     }
 
     public OrderDto getOrderWithProducts(String orderId) {
         Order order = elasticsearchService.getById(AppConstants.INDEX_ORDERS, orderId, Order.class);
 
+        Map<String, Product> productsByEan = elasticsearchService.getByIds(AppConstants.INDEX_PRODUCTS, order.getProductEans(), Product.class);
+
         List<Product> products = order.getProductEans().stream()
-                .map(ean -> {
-                    try {
-                        return productService.getProductByEAN(ean);
-                    } catch (ProductNotFoundException e) {
-                        throw new RuntimeException("Product with EAN " + ean + " not found", e);
-                    }
-                })
+                .map(ean -> Optional.ofNullable(productsByEan.get(ean))
+                        .orElseThrow(() -> new RuntimeException("Product with EAN " + ean + " not found")))
                 .collect(Collectors.toList());
 
         return new OrderDto(order, products);
@@ -95,8 +172,9 @@ public class OrderServiceImpl implements OrderService {
         );
 
         IndexResponse response = client.index(request);
+        nearCache.invalidate(response);
         if (!response.result().name().equals("Created")) {
-            throw new RuntimeException("Failed to save order in Elasticsearch");
+            throw new IOException("Failed to save order in Elasticsearch");
         }
     }
 
@@ -113,23 +191,58 @@ public class OrderServiceImpl implements OrderService {
                 return false;
             }
 
-            OrderDto order = getOrderWithProducts(id);
-            List<Product> products = order.products();
-
-            productService.updateProductsAfterOrderDeletion(products);
-
-            DeleteRequest deleteRequest = new DeleteRequest.Builder()
-                    .index(AppConstants.INDEX_ORDERS)
-                    .id(id)
-                    .build();
-
-            DeleteResponse deleteResponse = client.delete(deleteRequest);
+            List<String> productEans = Optional.ofNullable(getResponse.source().getProductEans()).orElseGet(List::of);
+
+            // The order is deleted on its own first: a _bulk is not atomic, a restock sent with a delete that loses the
+            // if_seq_no race would already be visible and sellable before it could be taken back
+            DeleteResponse deleted;
+            try {
+                deleted = client.delete(d -> d
+                        .index(AppConstants.INDEX_ORDERS)
+                        .id(id)
+                        .ifSeqNo(getResponse.seqNo())
+                        .ifPrimaryTerm(getResponse.primaryTerm()));
+            } catch (ElasticsearchException e) {
+                if (e.status() == 409) {
+                    return false;
+                }
+                throw e;
+            }
+            nearCache.invalidate(deleted);
+            if (deleted.result() != Result.Deleted) {
+                return false;
+            }
 
-            return deleteResponse.result() == Result.Deleted;
+            restock(id, productEans);
+            return true;
 
         } catch (IOException e) {
             throw new NoSuchElementException("Problem with deleting order with ID: " + id, e);
         }
     }
 
+    private void restock(String orderId, List<String> productEans) {
+        List<BulkOperation> operations = new ArrayList<>(productService.restockOperations(productEans));
+        if (operations.isEmpty()) {
+            return;
+        }
+        int restocks = operations.size();
+        operations.addAll(productService.payloadRefreshOperations(productEans));
+
+        try {
+            BulkResponse response = client.bulk(b -> b.operations(operations));
+            nearCache.invalidate(response);
+
+            response.items().subList(0, restocks).stream()
+                    .filter(item -> item.error() != null)
+                    .forEach(item -> {
+                        failedRestocks.increment();
+                        logger.error("Stock of product {} was not restored after deleting order {}: {}",
+                                item.id(), orderId, item.error().reason());
+                    });
+        } catch (IOException | RuntimeException e) {
+            failedRestocks.increment(restocks);
+            logger.error("Stock of {} products was not restored after deleting order {}", restocks, orderId, e);
+        }
+    }
 }
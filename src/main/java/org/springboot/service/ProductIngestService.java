@@ -0,0 +1,13 @@
+package org.springboot.service;
+
+import org.springboot.dto.BulkItemResult;
+import org.springboot.model.Product;
+
+import java.util.List;
+
+public interface ProductIngestService {
+
+    List<BulkItemResult> ingestProducts(List<Product> products);
+
+    List<BulkItemResult> ingestNdjson(String ndjson);
+}
@@ -0,0 +1,163 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.BulkIngestProperties;
+import org.springboot.dto.BulkItemResult;
+import org.springboot.generator.EANGenerator;
+import org.springboot.model.Product;
+import org.springboot.model.VectorOutboxEntry;
+import org.springboot.utility.AppConstants;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+
+@Service
+public class ProductIngestServiceImpl implements ProductIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIngestServiceImpl.class);
+
+    // The product create and its vector outbox entry, plus one catalog version bump per bulk
+    private static final int ACTIONS_PER_PRODUCT = 2;
+
+    private final ElasticsearchClient client;
+    private final VectorOutboxService vectorOutboxService;
+    private final BulkIngestProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchCache searchCache;
+    private final DocumentNearCache nearCache;
+
+    public ProductIngestServiceImpl(ElasticsearchClient client, VectorOutboxService vectorOutboxService,
+                                    BulkIngestProperties properties, ObjectMapper objectMapper, ProductSearchCache searchCache,
+                                    DocumentNearCache nearCache) {
+        this.client = client;
+        this.vectorOutboxService = vectorOutboxService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.searchCache = searchCache;
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public List<BulkItemResult> ingestProducts(List<Product> products) {
+        return ingest(products, Map.of());
+    }
+
+    @Override
+    public List<BulkItemResult> ingestNdjson(String ndjson) {
+        List<Product> products = new ArrayList<>();
+        Map<Integer, String> parseErrors = new HashMap<>();
+
+        Iterator<String> lines = ndjson.lines().iterator();
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                products.add(objectMapper.readValue(line, Product.class));
+            } catch (JsonProcessingException e) {
+                parseErrors.put(products.size(), "Malformed product document: " + e.getOriginalMessage());
+                products.add(null);
+            }
+        }
+        return ingest(products, parseErrors);
+    }
+
+    private List<BulkItemResult> ingest(List<Product> products, Map<Integer, String> parseErrors) {
+        BulkItemResult[] results = new BulkItemResult[products.size()];
+
+        List<Integer> batch = new ArrayList<>();
+        List<BulkOperation> outboxOperations = new ArrayList<>();
+        long batchBytes = 0;
+
+        for (int position = 0; position < products.size(); position++) {
+            Product product = products.get(position);
+            if (product == null) {
+                results[position] = BulkItemResult.failed(position, null, 400, parseErrors.get(position));
+                continue;
+            }
+            product.setEan(EANGenerator.generateRandomEAN13());
+            BulkOperation outboxOperation = vectorOutboxService.enqueueOperation(product.getEan(), VectorOutboxEntry.Operation.UPSERT);
+
+            long size = estimateSize(product) + estimateSize(outboxOperation.index().document());
+            if (!batch.isEmpty() && ((batch.size() + 1) * ACTIONS_PER_PRODUCT + 1 > properties.getMaxActions()
+                    || batchBytes + size > properties.getMaxBytes())) {
+                flush(products, batch, outboxOperations, results);
+                batch.clear();
+                outboxOperations.clear();
+                batchBytes = 0;
+            }
+            batch.add(position);
+            outboxOperations.add(outboxOperation);
+            batchBytes += size;
+        }
+
+        if (!batch.isEmpty()) {
+            flush(products, batch, outboxOperations, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void flush(List<Product> products, List<Integer> positions, List<BulkOperation> outboxOperations, BulkItemResult[] results) {
+        BulkRequest.Builder request = new BulkRequest.Builder();
+        for (int i = 0; i < positions.size(); i++) {
+            Product product = products.get(positions.get(i));
+            request.operations(op -> op
+                    .create(c -> c
+                            .index(AppConstants.INDEX_PRODUCTS)
+                            .id(product.getEan())
+                            .document(product)));
+            request.operations(outboxOperations.get(i));
+        }
+        request.operations(searchCache.catalogVersionOperation());
+
+        try {
+            BulkResponse response = client.bulk(request.build());
+            nearCache.invalidate(response);
+            searchCache.invalidate();
+            List<BulkResponseItem> items = response.items();
+
+            // Every product is followed by its vector outbox entry
+            for (int i = 0; i < positions.size(); i++) {
+                BulkResponseItem item = items.get(2 * i);
+                BulkResponseItem outboxItem = items.get(2 * i + 1);
+                int position = positions.get(i);
+
+                if (item.error() != null) {
+                    results[position] = BulkItemResult.failed(position, item.id(), item.status(), item.error().reason());
+                } else if (outboxItem.error() != null) {
+                    // The product exists, a client retry would create a duplicate; POST /api/qdrant/reindex re-enqueues it
+                    logger.warn("Vector sync for EAN {} could not be enqueued: {}", item.id(), outboxItem.error().reason());
+                    results[position] = BulkItemResult.created(position, item.id(),
+                            "Vector sync could not be enqueued: " + outboxItem.error().reason());
+                } else {
+                    results[position] = BulkItemResult.created(position, item.id());
+                }
+            }
+        } catch (IOException | ElasticsearchException e) {
+            logger.error("Bulk request with {} products failed", positions.size(), e);
+            for (int position : positions) {
+                results[position] = BulkItemResult.failed(position, products.get(position).getEan(), 500,
+                        "Bulk request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private long estimateSize(Object document) {
+        try {
+            return objectMapper.writeValueAsBytes(document).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Document can not be serialized: " + document, e);
+        }
+    }
+}
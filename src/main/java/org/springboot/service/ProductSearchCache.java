@@ -0,0 +1,116 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springboot.config.properties.SearchCacheProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.model.Product;
+import org.springboot.utility.AppConstants;
+import org.springboot.utility.SingleFlight;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * First pages of product searches, keyed by normalized parameters and the current write generation.
+ * A catalog write (create, update, delete, ingest) bumps the generation, so every earlier entry stops matching and ages
+ * out of the cache. It also bumps the catalog version document, from which {@link ProductSearchCacheSync} picks up the
+ * catalog writes of other instances. Sales and restocks leave both alone: stock in a cached page is refreshed with it.
+ */
+@Component
+public class ProductSearchCache {
+
+    private final SearchCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong observedCatalogVersion = new AtomicLong(-1);
+
+    private volatile long lastInvalidationNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    public ProductSearchCache(SearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        lastInvalidationNanos = System.nanoTime();
+    }
+
+    // Sent in the same _bulk as a catalog write, every index bumps the document's _version
+    public BulkOperation catalogVersionOperation() {
+        return BulkOperation.of(b -> b
+                .index(i -> i
+                        .index(AppConstants.INDEX_CATALOG_VERSION)
+                        .id(AppConstants.CATALOG_VERSION_ID)
+                        .document(Map.of("updatedAt", System.currentTimeMillis()))));
+    }
+
+    // _version of the catalog version document, shared by all instances; any change invalidates like a local write
+    public void observeCatalogVersion(long version) {
+        long previous = observedCatalogVersion.getAndSet(version);
+        if (previous >= 0 && previous != version) {
+            invalidate();
+        }
+    }
+
+    public <P> CachedSearch<P> create(String endpoint, BiFunction<P, Integer, CompletableFuture<CursorPage<Product>>> loader) {
+        return new CachedSearch<>(endpoint, loader);
+    }
+
+    public class CachedSearch<P> {
+
+        private record Key<P>(P params, Integer size, long generation) {
+        }
+
+        private final BiFunction<P, Integer, CompletableFuture<CursorPage<Product>>> loader;
+        private final AsyncLoadingCache<Key<P>, CursorPage<Product>> cache;
+        private final SingleFlight<Key<P>, CursorPage<Product>> flight = new SingleFlight<>();
+        private final Counter bypassed;
+
+        private CachedSearch(String endpoint, BiFunction<P, Integer, CompletableFuture<CursorPage<Product>>> loader) {
+            this.loader = loader;
+            this.bypassed = Counter.builder("product.search.cache.bypassed")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            FunctionCounter.builder("singleflight.coalesced", flight, SingleFlight::coalescedCount)
+                    .tag("operation", "search")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+
+            if (properties.isEnabled()) {
+                // Hot entries are reloaded in the background once refreshAfter has passed, callers keep getting the old page meanwhile
+                this.cache = Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxEntries())
+                        .refreshAfterWrite(properties.getRefreshAfter())
+                        .expireAfterWrite(properties.getExpireAfter())
+                        .recordStats()
+                        .buildAsync((key, executor) -> loader.apply(key.params(), key.size()));
+                CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "product-search", "endpoint", endpoint);
+            } else {
+                this.cache = null;
+            }
+        }
+
+        public CompletableFuture<CursorPage<Product>> get(P params, Integer size) {
+            // The generation is part of the key, so a search issued after a write never joins one that started before it
+            Key<P> key = new Key<>(params, size, generation.get());
+            if (cache == null) {
+                return flight.executeAsync(key, () -> loader.apply(params, size));
+            }
+            if (System.nanoTime() - lastInvalidationNanos < properties.getBypassWindow().toNanos()) {
+                bypassed.increment();
+                return flight.executeAsync(key, () -> loader.apply(params, size));
+            }
+            return flight.executeAsync(key, () -> cache.get(key));
+        }
+    }
+}
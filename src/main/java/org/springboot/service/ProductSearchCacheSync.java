@@ -0,0 +1,42 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.utility.AppConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(prefix = "search.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSearchCacheSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchCacheSync.class);
+
+    private final ElasticsearchClient client;
+    private final ProductSearchCache searchCache;
+
+    public ProductSearchCacheSync(ElasticsearchClient client, ProductSearchCache searchCache) {
+        this.client = client;
+        this.searchCache = searchCache;
+    }
+
+    // Polled at the bypass window, so a catalog write by another instance retires cached pages about when a refresh shows it
+    @Scheduled(fixedDelayString = "${search.cache.bypass-window:1s}")
+    public void poll() {
+        try {
+            GetResponse<Map> response = client.get(g -> g
+                    .index(AppConstants.INDEX_CATALOG_VERSION)
+                    .id(AppConstants.CATALOG_VERSION_ID)
+                    .source(s -> s.fetch(false)), Map.class);
+            searchCache.observeCatalogVersion(response.found() ? response.version() : 0);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Catalog version could not be read, cached searches only see writes of this instance", e);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package org.springboot.service;
 import org.springboot.exception.ProductNotFoundException;
 import org.springboot.model.Product;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -19,15 +18,5 @@ public interface ProductService {
 
     boolean deleteProduct(String id) throws ProductNotFoundException;
 
-    List<Product> getProductByCategory(String category) throws ProductNotFoundException;
-
-    List<Product> searchByPriceRange(double minPrice, double maxPrice) throws ProductNotFoundException;
-
-    List<Product> fuzzySearch(String searchTerm) throws ProductNotFoundException;
-
-    List<Product> getProductsByNgram(String searchTerm) throws ProductNotFoundException;
-
-    void updateProductsAfterOrderDeletion(List<Product> products);
-
-    Mono<List<Product>> hybridSearch(String query);
+    void updateProductsAfterOrderDeletion(List<String> productEans);
 }
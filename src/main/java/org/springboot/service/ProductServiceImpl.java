@@ -1,19 +1,19 @@
 package org.springboot.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.FieldValue;
-import co.elastic.clients.elasticsearch._types.Result;
 import co.elastic.clients.elasticsearch.core.*;
-import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.json.JsonData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springboot.exception.ProductNotFoundException;
 import org.springboot.generator.EANGenerator;
 import org.springboot.model.Product;
+import org.springboot.model.VectorOutboxEntry;
 import org.springboot.utility.AppConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.util.*;
@@ -22,17 +22,20 @@ import java.util.stream.Collectors;
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+
     private final ElasticsearchClient client;
-    private final ElasticsearchServiceImpl elasticsearchService;
-    private final EmbeddingService embeddingService;
-    private final QdrantSearchService qdrantService;
+    private final VectorOutboxService vectorOutboxService;
+    private final ProductSearchCache searchCache;
+    private final DocumentNearCache nearCache;
 
     @Autowired
-    public ProductServiceImpl(ElasticsearchClient client, ElasticsearchServiceImpl elasticsearchService, EmbeddingService embeddingService, QdrantSearchService qdrantService) {
+    public ProductServiceImpl(ElasticsearchClient client, VectorOutboxService vectorOutboxService, ProductSearchCache searchCache,
+                              DocumentNearCache nearCache) {
         this.client = client;
-        this.elasticsearchService = elasticsearchService;
-        this.embeddingService = embeddingService;
-        this.qdrantService = qdrantService;
+        this.vectorOutboxService = vectorOutboxService;
+        this.searchCache = searchCache;
+        this.nearCache = nearCache;
     }
 
     @Override
@@ -40,79 +43,65 @@ public class ProductServiceImpl implements ProductService {
         String eanCode = EANGenerator.generateRandomEAN13();
         product.setEan(eanCode);
 
-        String textToEmbed = product.getName() + " " + product.getDescription();
-        float[] embedding = embeddingService.generateEmbedding(textToEmbed);
-
-        try {
-            boolean indexExists = client.indices().exists(e -> e.index(AppConstants.INDEX_PRODUCTS)).value();
-
-            if (!indexExists) {
-                client.indices().create(c -> c.index(AppConstants.INDEX_PRODUCTS));
-            }
+        BulkResponseItem item = writeWithVectorSync(BulkOperation.of(b -> b
+                .create(c -> c
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .id(eanCode)
+                        .document(product))), eanCode, VectorOutboxEntry.Operation.UPSERT);
 
-            GetRequest getRequest = new GetRequest.Builder()
-                    .index(AppConstants.INDEX_PRODUCTS)
-                    .id(eanCode)
-                    .build();
-            GetResponse<Product> existingProduct = client.get(getRequest, Product.class);
-            //TODO Check if the product already exists
-            if (existingProduct.found()) {
+        if (item.error() != null) {
+            if (item.status() == 409) {
                 throw new IllegalStateException("Product with EAN: " + eanCode + " already exists.");
             }
-
-            IndexResponse response = client.index(i -> i
-                    .index(AppConstants.INDEX_PRODUCTS)
-                    .id(eanCode)
-                    .document(product));
-
-            if (response.result() == Result.Created) {
-                qdrantService.saveEmbeddingToQdrant(product, embedding);
-                return product;
-            } else {
-                throw new RuntimeException("Failed to add product with EAN: " + eanCode);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Problem with adding product with EAN: " + eanCode, e);
+            throw new RuntimeException("Failed to add product with EAN: " + eanCode + ": " + item.error().reason());
         }
+        return product;
     }
 
     @Override
     public Product soldProduct(String ean) throws ProductNotFoundException {
-        Product product = Optional.ofNullable(elasticsearchService.getById(AppConstants.INDEX_PRODUCTS, ean, Product.class))
-                .orElseThrow(() -> new ProductNotFoundException("Product with EAN: " + ean + " not found"));
+        BulkResponseItem item = writeWithVectorSync(sellOperation(ean, 1), ean, VectorOutboxEntry.Operation.PAYLOAD);
 
-        if (product.getAvailable() <= 0) {
+        if (item.error() != null) {
+            if (item.status() == 404) {
+                throw new ProductNotFoundException("Product with EAN: " + ean + " not found");
+            }
+            throw new RuntimeException("Failed to update product with EAN: " + ean + ": " + item.error().reason());
+        }
+        if ("noop".equals(item.result())) {
             throw new IllegalStateException("No stock available for EAN: " + ean);
         }
+        return item.get().source().to(Product.class);
+    }
 
-        int newAvailable = product.getAvailable() - 1;
-        int newSold = product.getSold() + 1;
-
-        Map<String, Object> updateFields = new HashMap<>();
-        updateFields.put("available", newAvailable);
-        updateFields.put("sold", newSold);
+    public BulkOperation sellOperation(String ean, int quantity) {
+        return productScriptOperation(ean, AppConstants.SCRIPT_PRODUCT_SELL, quantity, true);
+    }
 
-        UpdateRequest<Product, Map<String, Object>> request = new UpdateRequest.Builder<Product, Map<String, Object>>()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .id(ean)
-                .doc(updateFields)
-                .build();
+    public BulkOperation restockOperation(String ean, int quantity) {
+        return productScriptOperation(ean, AppConstants.SCRIPT_PRODUCT_RESTOCK, quantity, false);
+    }
 
-        try {
-            UpdateResponse<Product> response = client.update(request, Product.class);
+    // Stock changes keep the price and availability payload of the Qdrant points current
+    public List<BulkOperation> payloadRefreshOperations(Collection<String> eans) {
+        return eans.stream()
+                .distinct()
+                .map(ean -> vectorOutboxService.enqueueOperation(ean, VectorOutboxEntry.Operation.PAYLOAD))
+                .toList();
+    }
 
-            if (response.result() == Result.Updated) {
-                product.setAvailable(newAvailable);
-                product.setSold(newSold);
-                return product;
-            } else {
-                throw new ProductNotFoundException("Product update failed: EAN " + ean + " not found in Elasticsearch");
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Problem with updating product with EAN: " + ean, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error occurred while updating product", e);
-        }
+    private BulkOperation productScriptOperation(String ean, String scriptId, int quantity, boolean fetchSource) {
+        return BulkOperation.of(b -> b
+                .update(u -> u
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .id(ean)
+                        .retryOnConflict(AppConstants.RETRY_ON_CONFLICT)
+                        .action(a -> a
+                                .script(sc -> sc
+                                        .stored(st -> st
+                                                .id(scriptId)
+                                                .params("quantity", JsonData.of(quantity))))
+                                .source(src -> src.fetch(fetchSource)))));
     }
 
     @Override
@@ -153,188 +142,82 @@ public class ProductServiceImpl implements ProductService {
                 "available", product.getAvailable(),
                 "sold", product.getSold()
         );
-        UpdateRequest<Product, Map<String, Object>> request = new UpdateRequest.Builder<Product, Map<String, Object>>()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .id(ean)
-                .doc(updateFields)
-                .build();
-
-        try {
-            UpdateResponse<Product> response = client.update(request, Product.class);
-
-            if (response.result() == Result.Updated) {
-                return product;
-            } else {
-                throw new ProductNotFoundException("Product update failed: ID " + ean + " not found");
-            }
-        } catch (IOException e) {
-            throw new ProductNotFoundException("Problem with updating product with ID: " + ean, e);
+        BulkResponseItem item = writeWithVectorSync(BulkOperation.of(b -> b
+                .update(u -> u
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .id(ean)
+                        .action(a -> a.doc(updateFields)))), ean, VectorOutboxEntry.Operation.UPSERT);
+
+        if (item.error() != null || !"updated".equals(item.result())) {
+            throw new ProductNotFoundException("Product update failed: ID " + ean + " not found");
         }
+        return product;
     }
 
     @Override
     public boolean deleteProduct(String id) throws ProductNotFoundException {
-        DeleteRequest request = new DeleteRequest.Builder()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .id(id)
-                .build();
-
-        DeleteResponse response;
-        try {
-            response = client.delete(request);
-            if (response.result() == Result.Deleted) {
-                return true;
-            } else {
-                throw new ProductNotFoundException("Product deletion failed: ID " + id + " not found");
-            }
-        } catch (IOException e) {
-            throw new ProductNotFoundException("Problem with deleting product with ID: " + id, e);
-        }
-    }
-
-    @Override
-    public List<Product> getProductByCategory(String category) throws ProductNotFoundException {
-        SearchRequest request = new SearchRequest.Builder()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .query(q -> q
-                        .match(t -> t
-                                .field("category")
-                                .query(category)
-                                .fuzziness("AUTO")))
-                .build();
+        BulkResponseItem item = writeWithVectorSync(BulkOperation.of(b -> b
+                .delete(d -> d
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .id(id))), id, VectorOutboxEntry.Operation.DELETE);
 
-        try {
-            return getProductListFromResponse(request);
-        } catch (IOException e) {
-            throw new ProductNotFoundException("Error while fetching products by category: " + category, e);
+        if (item.error() != null || !"deleted".equals(item.result())) {
+            throw new ProductNotFoundException("Product deletion failed: ID " + id + " not found");
         }
+        return true;
     }
 
-    @Override
-    public List<Product> searchByPriceRange(double minPrice, double maxPrice) throws ProductNotFoundException {
-        SearchRequest request = new SearchRequest.Builder()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .query(q -> q
-                        .range(r -> r
-                                .field("price")
-                                .gte(JsonData.of(minPrice))
-                                .lte(JsonData.of(maxPrice))))
-                .build();
-
+    // Sends the product write and its vector outbox entry in one _bulk, Qdrant is updated later by VectorOutboxWorker
+    private BulkResponseItem writeWithVectorSync(BulkOperation productOperation, String ean, VectorOutboxEntry.Operation vectorOperation) {
         try {
-            return getProductListFromResponse(request);
+            BulkResponse response = client.bulk(b -> b
+                    .operations(productOperation)
+                    .operations(vectorOutboxService.enqueueOperation(ean, vectorOperation))
+                    .operations(searchCache.catalogVersionOperation()));
+            nearCache.invalidate(response);
+            searchCache.invalidate();
+
+            BulkResponseItem outboxItem = response.items().get(1);
+            if (outboxItem.error() != null) {
+                logger.warn("Vector sync for EAN {} could not be enqueued: {}", ean, outboxItem.error().reason());
+            }
+            return response.items().get(0);
         } catch (IOException e) {
-            throw new ProductNotFoundException("Error while fetching products in the price range: " + minPrice + " to " + maxPrice, e);
+            throw new RuntimeException("Problem with writing product with EAN: " + ean, e);
         }
     }
 
     @Override
-    public List<Product> fuzzySearch(String searchTerm) throws ProductNotFoundException {
-        SearchRequest request = new SearchRequest.Builder()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .query(q -> q
-                        .bool(b -> b
-                                .should(s -> s
-                                        .fuzzy(f -> f
-                                                .field("category")
-                                                .value(searchTerm)
-                                                .fuzziness("AUTO")))
-                                .should(s -> s
-                                        .fuzzy(f -> f
-                                                .field("name")
-                                                .value(searchTerm)
-                                                .fuzziness("AUTO")))))
-                .build();
-
-        try {
-            return getProductListFromResponse(request);
-        } catch (IOException e) {
-            throw new ProductNotFoundException("Error while fetching products for search term: " + searchTerm, e);
+    public void updateProductsAfterOrderDeletion(List<String> productEans) {
+        List<BulkOperation> operations = new ArrayList<>(restockOperations(productEans));
+        if (operations.isEmpty()) {
+            return;
         }
-    }
-
-    @Override
-    public List<Product> getProductsByNgram(String searchTerm) throws ProductNotFoundException {
-        SearchRequest request = new SearchRequest.Builder()
-                .index(AppConstants.INDEX_PRODUCTS)
-                .query(q -> q
-                        .prefix(p -> p
-                                .field("name")
-                                .value(searchTerm)))
-                .build();
+        operations.addAll(payloadRefreshOperations(productEans));
 
         try {
-            return getProductListFromResponse(request);
-        } catch (IOException e) {
-            throw new ProductNotFoundException("Error while fetching products for search term: " + searchTerm, e);
-        }
-    }
-
-    private List<Product> getProductListFromResponse(SearchRequest request) throws IOException {
-        SearchResponse<Product> response = null;
-
-        response = client.search(request, Product.class);
-        List<Hit<Product>> hits = response.hits().hits();
-        List<Product> products = new ArrayList<>();
-        for (Hit<Product> hit : hits) {
-            Product product = hit.source();
-            products.add(product);
-        }
-        return products;
-    }
-
-    @Override
-    public void updateProductsAfterOrderDeletion(List<Product> products) {
-        for (Product product : products) {
-            String ean = product.getEan();
-            int newAvailable = product.getAvailable() + 1;
-            int newSold = Math.max(0, product.getSold() - 1);
-
-            product.setAvailable(newAvailable);
-            product.setSold(newSold);
-
-            try {
-                updateProduct(ean, product);
-            } catch (ProductNotFoundException e) {
-                throw new RuntimeException("Product with EAN " + ean + " not found", e);
+            BulkResponse response = client.bulk(b -> b.operations(operations));
+            nearCache.invalidate(response);
+
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null && AppConstants.INDEX_VECTOR_OUTBOX.equals(item.index())) {
+                    logger.warn("Vector sync for EAN {} could not be enqueued: {}", item.id(), item.error().reason());
+                } else if (item.error() != null) {
+                    String reason = item.status() == 404 ? "not found" : item.error().reason();
+                    throw new RuntimeException("Product with EAN " + item.id() + " " + reason);
+                }
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with restoring stock for products: " + productEans, e);
         }
     }
 
-    @Override
-    public Mono<List<Product>> hybridSearch(String query) {
-        return Mono.fromCallable(() -> embeddingService.generateEmbedding(query))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(queryEmbedding ->
-                        qdrantService.searchByEmbedding(queryEmbedding, 10)
-                                .flatMap(eanCodes -> {
-                                    if (eanCodes.isEmpty()) {
-                                        return Mono.just(List.of());
-                                    }
-                                    eanCodes.forEach(System.out::println);
-
-                                    return Mono.fromCallable(() -> {
-                                        SearchResponse<Product> response = client.search(s -> s
-                                                .index(AppConstants.INDEX_PRODUCTS)
-                                                .query(q -> q
-                                                        .terms(t -> t
-                                                                .field("_id")
-                                                                .terms(ts -> ts
-                                                                        .value(eanCodes.stream()
-                                                                                .map(FieldValue::of)
-                                                                                .collect(Collectors.toList()))
-                                                                )
-                                                        )
-                                                ), Product.class);
-
-                                        List<Product> products = response.hits().hits().stream()
-                                                .map(Hit::source)
-                                                .peek(System.out::println)
-                                                .collect(Collectors.toList());
+    public List<BulkOperation> restockOperations(List<String> productEans) {
+        Map<String, Integer> quantities = productEans.stream()
+                .collect(Collectors.groupingBy(ean -> ean, LinkedHashMap::new, Collectors.summingInt(ean -> 1)));
 
-                                        return products;
-                                    }).subscribeOn(Schedulers.boundedElastic());
-                                })
-                );
+        List<BulkOperation> operations = new ArrayList<>(quantities.size());
+        quantities.forEach((ean, quantity) -> operations.add(restockOperation(ean, quantity)));
+        return operations;
     }
 }
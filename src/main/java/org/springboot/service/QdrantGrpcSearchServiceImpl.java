@@ -0,0 +1,303 @@
+package org.springboot.service;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections.BinaryQuantization;
+import io.qdrant.client.grpc.Collections.CreateCollection;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.PayloadSchemaType;
+import io.qdrant.client.grpc.Collections.QuantizationConfig;
+import io.qdrant.client.grpc.Collections.QuantizationType;
+import io.qdrant.client.grpc.Collections.ScalarQuantization;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Collections.VectorsConfig;
+import io.qdrant.client.grpc.JsonWithInt;
+import io.qdrant.client.grpc.Points.Filter;
+import io.qdrant.client.grpc.Points.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsSelector;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.QuantizationSearchParams;
+import io.qdrant.client.grpc.Points.Range;
+import io.qdrant.client.grpc.Points.ScoredPoint;
+import io.qdrant.client.grpc.Points.SearchParams;
+import io.qdrant.client.grpc.Points.SearchPoints;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.QdrantProperties;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import org.springboot.utility.AppConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+import static io.qdrant.client.ConditionFactory.hasId;
+import static io.qdrant.client.ConditionFactory.matchKeyword;
+import static io.qdrant.client.ConditionFactory.range;
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static io.qdrant.client.VectorsFactory.vectors;
+import static io.qdrant.client.WithPayloadSelectorFactory.enable;
+
+@Service
+@ConditionalOnProperty(prefix = "vector-store", name = "backend", havingValue = "grpc")
+public class QdrantGrpcSearchServiceImpl implements QdrantSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QdrantGrpcSearchServiceImpl.class);
+
+    private static final Map<String, PayloadSchemaType> PAYLOAD_INDEXES = Map.of(
+            "ean", PayloadSchemaType.Keyword,
+            "category", PayloadSchemaType.Keyword,
+            "price", PayloadSchemaType.Float,
+            "available", PayloadSchemaType.Integer
+    );
+
+    private final QdrantClient qdrantClient;
+    private final QdrantProperties properties;
+    private final DownstreamLimiters limiters;
+    private final String collectionName;
+
+    public QdrantGrpcSearchServiceImpl(QdrantClient qdrantClient, QdrantProperties properties, DownstreamLimiters limiters) {
+        this.qdrantClient = qdrantClient;
+        this.properties = properties;
+        this.limiters = limiters;
+        this.collectionName = properties.getCollectionName();
+    }
+
+    @PostConstruct
+    public void createCollectionIfNotExists() {
+        try {
+            if (!Boolean.TRUE.equals(qdrantClient.collectionExistsAsync(collectionName).get())) {
+                createCollection();
+            }
+
+            // Creating an existing payload index is a no-op, so collections created before the filter fields got them too
+            for (Map.Entry<String, PayloadSchemaType> index : PAYLOAD_INDEXES.entrySet()) {
+                await(qdrantClient.createPayloadIndexAsync(collectionName, index.getKey(), index.getValue(), null, true, null, null),
+                        "creating payload index " + index.getKey());
+            }
+        } catch (Exception e) {
+            logger.warn("Qdrant collection {} could not be checked or created", collectionName, e);
+        }
+    }
+
+    private void createCollection() {
+        CreateCollection.Builder request = CreateCollection.newBuilder()
+                .setCollectionName(collectionName)
+                .setVectorsConfig(VectorsConfig.newBuilder()
+                        .setParams(VectorParams.newBuilder()
+                                .setSize(properties.getDimensions())
+                                .setDistance(Distance.valueOf(properties.getDistance()))));
+        switch (properties.getQuantization()) {
+            case INT8 -> request.setQuantizationConfig(QuantizationConfig.newBuilder()
+                    .setScalar(ScalarQuantization.newBuilder()
+                            .setType(QuantizationType.Int8)
+                            .setQuantile(0.99f)
+                            .setAlwaysRam(true)));
+            case BINARY -> request.setQuantizationConfig(QuantizationConfig.newBuilder()
+                    .setBinary(BinaryQuantization.newBuilder()
+                            .setAlwaysRam(true)));
+            case NONE -> {
+            }
+        }
+
+        await(qdrantClient.createCollectionAsync(request.build()), "creating collection " + collectionName);
+        logger.info("Created Qdrant collection {} ({} dimensions, {} quantization)", collectionName,
+                properties.getDimensions(), properties.getQuantization());
+    }
+
+    @Override
+    public void upsertPoints(List<Product> products, List<float[]> embeddings) {
+        if (products.size() != embeddings.size()) {
+            throw new IllegalArgumentException("Expected " + products.size() + " embeddings, got " + embeddings.size());
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+
+        List<PointStruct> points = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            points.add(toPoint(products.get(i), embeddings.get(i)));
+        }
+        limiters.call(AppConstants.DOWNSTREAM_QDRANT,
+                () -> await(qdrantClient.upsertAsync(collectionName, points), "upserting " + points.size() + " points"));
+    }
+
+    @Override
+    public void deletePoints(Collection<String> eans) {
+        if (eans.isEmpty()) {
+            return;
+        }
+
+        List<PointId> ids = eans.stream()
+                .map(ean -> id(Long.parseLong(ean)))
+                .toList();
+        limiters.call(AppConstants.DOWNSTREAM_QDRANT,
+                () -> await(qdrantClient.deleteAsync(collectionName, ids), "deleting " + ids.size() + " points"));
+    }
+
+    @Override
+    public void setPayloads(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        // Selecting by has_id filter instead of point ids skips products that have no vector yet instead of failing the batch
+        List<PointsUpdateOperation> operations = products.stream()
+                .map(product -> PointsUpdateOperation.newBuilder()
+                        .setSetPayload(PointsUpdateOperation.SetPayload.newBuilder()
+                                .putAllPayload(payload(product))
+                                .setPointsSelector(PointsSelector.newBuilder()
+                                        .setFilter(Filter.newBuilder()
+                                                .addMust(hasId(id(Long.parseLong(product.getEan())))))))
+                        .build())
+                .toList();
+        limiters.call(AppConstants.DOWNSTREAM_QDRANT, () -> await(qdrantClient.batchUpdateAsync(collectionName, operations),
+                "updating payload of " + operations.size() + " points"));
+    }
+
+    @Override
+    public Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit) {
+        return search(vector, limit, true, VectorFilter.NONE)
+                .map(points -> {
+                    List<Map<String, Object>> result = new ArrayList<>(points.size());
+                    for (ScoredPoint point : points) {
+                        result.add(Map.of(
+                                "id", point.getId().getNum(),
+                                "score", point.getScore(),
+                                "payload", toMap(point.getPayloadMap())));
+                    }
+                    return Map.of("result", result);
+                });
+    }
+
+    @Override
+    public Mono<List<String>> searchByEmbedding(float[] embedding, int topK, VectorFilter filter) {
+        return search(embedding, topK, false, filter)
+                .map(points -> points.stream()
+                        .map(point -> String.valueOf(point.getId().getNum()))
+                        .toList())
+                .onErrorResume(e -> {
+                    logger.error("Qdrant search failed", e);
+                    return Mono.just(List.of());
+                });
+    }
+
+    private Mono<List<ScoredPoint>> search(float[] vector, int limit, boolean withPayload, VectorFilter filter) {
+        SearchPoints.Builder request = SearchPoints.newBuilder()
+                .setCollectionName(collectionName)
+                .setLimit(limit)
+                .setWithPayload(enable(withPayload));
+        if (filter != null && !filter.isEmpty()) {
+            request.setFilter(toQdrantFilter(filter));
+        }
+        if (properties.getQuantization() != QdrantProperties.Quantization.NONE) {
+            request.setParams(SearchParams.newBuilder()
+                    .setQuantization(QuantizationSearchParams.newBuilder()
+                            .setRescore(properties.isRescore())
+                            .setOversampling(properties.getOversampling())));
+        }
+        // Repeated floats are sent as packed binary, no per-element boxing or text formatting
+        for (float component : vector) {
+            request.addVector(component);
+        }
+        return limiters.limit(AppConstants.DOWNSTREAM_QDRANT, () -> toMono(qdrantClient.searchAsync(request.build())));
+    }
+
+    private Filter toQdrantFilter(VectorFilter filter) {
+        Filter.Builder builder = Filter.newBuilder();
+        if (filter.category() != null) {
+            builder.addMust(matchKeyword("category", filter.category()));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Range.Builder price = Range.newBuilder();
+            if (filter.minPrice() != null) {
+                price.setGte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price.setLte(filter.maxPrice());
+            }
+            builder.addMust(range("price", price.build()));
+        }
+        if (Boolean.TRUE.equals(filter.inStock())) {
+            builder.addMust(range("available", Range.newBuilder().setGt(0).build()));
+        }
+        return builder.build();
+    }
+
+    private PointStruct toPoint(Product product, float[] embedding) {
+        if (embedding.length != properties.getDimensions()) {
+            throw new IllegalArgumentException("Embedding must be " + properties.getDimensions() + " dimensions.");
+        }
+
+        return PointStruct.newBuilder()
+                .setId(id(Long.parseLong(product.getEan())))
+                .setVectors(vectors(embedding))
+                .putAllPayload(payload(product))
+                .build();
+    }
+
+    private Map<String, JsonWithInt.Value> payload(Product product) {
+        return Map.of(
+                "text", value(Objects.requireNonNullElse(product.getDescription(), "")),
+                "metadata", value(Map.of("source", value("user"))),
+                "ean", value(product.getEan()),
+                "category", value(Objects.requireNonNullElse(product.getCategory(), "").toLowerCase(Locale.ROOT)),
+                "price", value(product.getPrice()),
+                "available", value(product.getAvailable()));
+    }
+
+    private Map<String, Object> toMap(Map<String, JsonWithInt.Value> payload) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        payload.forEach((key, value) -> result.put(key, toJava(value)));
+        return result;
+    }
+
+    private Object toJava(JsonWithInt.Value value) {
+        return switch (value.getKindCase()) {
+            case STRING_VALUE -> value.getStringValue();
+            case INTEGER_VALUE -> value.getIntegerValue();
+            case DOUBLE_VALUE -> value.getDoubleValue();
+            case BOOL_VALUE -> value.getBoolValue();
+            case STRUCT_VALUE -> toMap(value.getStructValue().getFieldsMap());
+            case LIST_VALUE -> value.getListValue().getValuesList().stream().map(this::toJava).toList();
+            default -> null;
+        };
+    }
+
+    private <T> T await(ListenableFuture<T> future, String operation) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while " + operation + " in Qdrant", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Problem with " + operation + " in Qdrant", e.getCause());
+        }
+    }
+
+    private static <T> Mono<T> toMono(ListenableFuture<T> future) {
+        return Mono.create(sink -> {
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(T result) {
+                    sink.success(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    sink.error(t);
+                }
+            }, MoreExecutors.directExecutor());
+            sink.onCancel(() -> future.cancel(true));
+        });
+    }
+}
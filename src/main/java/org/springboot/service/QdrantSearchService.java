@@ -1,16 +1,22 @@
 package org.springboot.service;
 
+import org.springboot.dto.VectorFilter;
 import org.springboot.model.Product;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 public interface QdrantSearchService {
 
-    void saveEmbeddingToQdrant(Product product, float[] embedding);
+    void upsertPoints(List<Product> products, List<float[]> embeddings);
+
+    void deletePoints(Collection<String> eans);
+
+    void setPayloads(List<Product> products);
 
     Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit);
 
-    Mono<List<String>> searchByEmbedding(float[] embedding, int topK);
+    Mono<List<String>> searchByEmbedding(float[] embedding, int topK, VectorFilter filter);
 }
@@ -1,89 +1,151 @@
 package org.springboot.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.QdrantProperties;
+import org.springboot.dto.VectorFilter;
 import org.springboot.model.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "vector-store", name = "backend", havingValue = "rest", matchIfMissing = true)
 public class QdrantSearchServiceImpl implements QdrantSearchService {
 
+    private static final Logger logger = LoggerFactory.getLogger(QdrantSearchServiceImpl.class);
+
+    private static final Map<String, String> PAYLOAD_INDEXES = Map.of(
+            "ean", "keyword",
+            "category", "keyword",
+            "price", "float",
+            "available", "integer"
+    );
+
     private final WebClient qdrantWebClient;
+    private final QdrantProperties properties;
 
-    public void saveEmbeddingToQdrant(Product product, float[] embedding) {
-        if (embedding.length != 1536) {
-            throw new IllegalArgumentException("Embedding must be 1536 dimensions.");
-        }
+    public QdrantSearchServiceImpl(WebClient qdrantWebClient, QdrantProperties properties) {
+        this.qdrantWebClient = qdrantWebClient;
+        this.properties = properties;
+    }
 
-        Map<String, Object> point = Map.of(
-                "id", Long.parseLong(product.getEan()),
-                "vector", embedding,
-                "payload", Map.of(
-                        "text", product.getDescription(),
-                        "metadata", Map.of(
-                                "source", "user"
-                        )
-                )
-        );
-        Map<String, Object> requestBody = Map.of(
-                "points", List.of(point)
-        );
+    @Override
+    public void upsertPoints(List<Product> products, List<float[]> embeddings) {
+        if (products.size() != embeddings.size()) {
+            throw new IllegalArgumentException("Expected " + products.size() + " embeddings, got " + embeddings.size());
+        }
+        if (products.isEmpty()) {
+            return;
+        }
 
-        try {
-            System.out.println(new ObjectMapper().writeValueAsString(requestBody));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        List<Map<String, Object>> points = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            points.add(toPoint(products.get(i), embeddings.get(i)));
         }
+
         qdrantWebClient.put()
-                .uri("/collections/products/points?wait=true")
+                .uri("/collections/{collection}/points?wait=true", properties.getCollectionName())
                 .header("Content-Type", "application/json")
-                .bodyValue(requestBody)
+                .bodyValue(Map.of("points", points))
                 .retrieve()
                 .toBodilessEntity()
-                .doOnError(e -> System.err.println("Error during Qdrant request: " + e.getMessage()))
                 .block();
     }
 
-    public Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit) {
-        Map<String, Object> requestBody = Map.of(
-                "vector", vector,
-                "top", limit
-        );
+    @Override
+    public void deletePoints(Collection<String> eans) {
+        if (eans.isEmpty()) {
+            return;
+        }
 
-        return qdrantWebClient.post()
-                .uri("/collections/products/points/search")
-                .bodyValue(requestBody)
+        List<Long> ids = eans.stream()
+                .map(Long::parseLong)
+                .toList();
+
+        qdrantWebClient.post()
+                .uri("/collections/{collection}/points/delete?wait=true", properties.getCollectionName())
+                .header("Content-Type", "application/json")
+                .bodyValue(Map.of("points", ids))
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
-                });
+                .toBodilessEntity()
+                .block();
     }
 
     @Override
-    public Mono<List<String>> searchByEmbedding(float[] embedding, int topK) {
-        Logger logger = LoggerFactory.getLogger(getClass());
+    public void setPayloads(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        // Selecting by has_id filter instead of point ids skips products that have no vector yet instead of failing the batch
+        List<Map<String, Object>> operations = products.stream()
+                .map(product -> Map.<String, Object>of("set_payload", Map.of(
+                        "payload", payload(product),
+                        "filter", Map.of("must", List.of(Map.of("has_id", List.of(Long.parseLong(product.getEan())))))
+                )))
+                .toList();
+
+        qdrantWebClient.post()
+                .uri("/collections/{collection}/points/batch?wait=true", properties.getCollectionName())
+                .header("Content-Type", "application/json")
+                .bodyValue(Map.of("operations", operations))
+                .retrieve()
+                .toBodilessEntity()
+                .block();
+    }
+
+    private Map<String, Object> toPoint(Product product, float[] embedding) {
+        if (embedding.length != properties.getDimensions()) {
+            throw new IllegalArgumentException("Embedding must be " + properties.getDimensions() + " dimensions.");
+        }
 
-        Map<String, Object> requestBody = Map.of(
+        return Map.of(
+                "id", Long.parseLong(product.getEan()),
                 "vector", embedding,
-                "top", topK
+                "payload", payload(product)
         );
+    }
+
+    private Map<String, Object> payload(Product product) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", Objects.requireNonNullElse(product.getDescription(), ""));
+        payload.put("metadata", Map.of("source", "user"));
+        payload.put("ean", product.getEan());
+        payload.put("category", Objects.requireNonNullElse(product.getCategory(), "").toLowerCase(Locale.ROOT));
+        payload.put("price", product.getPrice());
+        payload.put("available", product.getAvailable());
+        return payload;
+    }
 
+    public Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit) {
+        return qdrantWebClient.post()
+                .uri("/collections/{collection}/points/search", properties.getCollectionName())
+                .bodyValue(searchBody(vector, limit, true, VectorFilter.NONE))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+    }
+
+    @Override
+    public Mono<List<String>> searchByEmbedding(float[] embedding, int topK, VectorFilter filter) {
         return qdrantWebClient.post()
-                .uri("/collections/products/points/search")
+                .uri("/collections/{collection}/points/search", properties.getCollectionName())
                 .header("Content-Type", "application/json")
-                .bodyValue(requestBody)
+                .bodyValue(searchBody(embedding, topK, false, filter))
                 .retrieve()
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
                 })
@@ -110,26 +172,97 @@ public class QdrantSearchServiceImpl implements QdrantSearchService {
                 })
                 .onErrorResume(e -> {
                     logger.error("Qdrant search failed", e);
-                    System.err.println("Qdrant search failed: " + e.getMessage());
                     return Mono.just(List.of());
                 });
     }
 
+    private Map<String, Object> searchBody(float[] vector, int limit, boolean withPayload, VectorFilter filter) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("vector", vector);
+        body.put("limit", limit);
+        body.put("with_payload", withPayload);
+        if (filter != null && !filter.isEmpty()) {
+            body.put("filter", toQdrantFilter(filter));
+        }
+        if (properties.getQuantization() != QdrantProperties.Quantization.NONE) {
+            body.put("params", Map.of("quantization", Map.of(
+                    "rescore", properties.isRescore(),
+                    "oversampling", properties.getOversampling())));
+        }
+        return body;
+    }
+
+    private Map<String, Object> toQdrantFilter(VectorFilter filter) {
+        List<Map<String, Object>> must = new ArrayList<>();
+        if (filter.category() != null) {
+            must.add(Map.of("key", "category", "match", Map.of("value", filter.category())));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Map<String, Object> range = new LinkedHashMap<>();
+            if (filter.minPrice() != null) {
+                range.put("gte", filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                range.put("lte", filter.maxPrice());
+            }
+            must.add(Map.of("key", "price", "range", range));
+        }
+        if (Boolean.TRUE.equals(filter.inStock())) {
+            must.add(Map.of("key", "available", "range", Map.of("gt", 0)));
+        }
+        return Map.of("must", must);
+    }
+
+    @PostConstruct
     public void createCollectionIfNotExists() {
-        Map<String, Object> vectorsConfig = Map.of(
-                "size", 1536,
-                "distance", "Cosine"
-        );
+        String collection = properties.getCollectionName();
+        try {
+            Map<String, Object> response = qdrantWebClient.get()
+                    .uri("/collections/{collection}/exists", collection)
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                    })
+                    .block();
+            boolean exists = response != null && response.get("result") instanceof Map<?, ?> result && Boolean.TRUE.equals(result.get("exists"));
+            if (!exists) {
+                createCollection(collection);
+            }
 
-        Map<String, Object> body = Map.of(
-                "vectors", vectorsConfig
-        );
+            // Creating an existing payload index is a no-op, so collections created before the filter fields got them too
+            PAYLOAD_INDEXES.forEach((field, schema) -> qdrantWebClient.put()
+                    .uri("/collections/{collection}/index?wait=true", collection)
+                    .bodyValue(Map.of("field_name", field, "field_schema", schema))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block());
+        } catch (Exception e) {
+            logger.warn("Qdrant collection {} could not be checked or created", collection, e);
+        }
+    }
+
+    private void createCollection(String collection) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("vectors", Map.of(
+                "size", properties.getDimensions(),
+                "distance", properties.getDistance()));
+        switch (properties.getQuantization()) {
+            case INT8 -> body.put("quantization_config", Map.of("scalar", Map.of(
+                    "type", "int8",
+                    "quantile", 0.99,
+                    "always_ram", true)));
+            case BINARY -> body.put("quantization_config", Map.of("binary", Map.of(
+                    "always_ram", true)));
+            case NONE -> {
+            }
+        }
 
         qdrantWebClient.put()
-                .uri("/collections/products")
+                .uri("/collections/{collection}", collection)
                 .bodyValue(body)
                 .retrieve()
                 .toBodilessEntity()
                 .block();
+        logger.info("Created Qdrant collection {} ({} dimensions, {} quantization)", collection,
+                properties.getDimensions(), properties.getQuantization());
     }
 }
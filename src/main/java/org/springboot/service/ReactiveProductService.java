@@ -0,0 +1,28 @@
+package org.springboot.service;
+
+import org.springboot.dto.CursorPage;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveProductService {
+
+    Mono<Product> getProductById(String ean);
+
+    Flux<Product> getProductsByIds(List<String> eans);
+
+    Mono<CursorPage<Product>> getAllProducts(String cursor, Integer size);
+
+    Mono<CursorPage<Product>> getProductByCategory(String category, String cursor, Integer size);
+
+    Mono<CursorPage<Product>> searchByPriceRange(double minPrice, double maxPrice, String cursor, Integer size);
+
+    Mono<CursorPage<Product>> fuzzySearch(String searchTerm, String cursor, Integer size);
+
+    Mono<CursorPage<Product>> getProductsByNgram(String searchTerm, String cursor, Integer size);
+
+    Mono<List<Product>> hybridSearch(String query, VectorFilter filter);
+}
@@ -0,0 +1,260 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.HybridSearchProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import org.springboot.utility.AppConstants;
+import org.springboot.utility.RankFusion;
+import org.springboot.utility.SingleFlight;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// Product reads and searches on ElasticsearchAsyncClient, no request thread is held while Elasticsearch, Qdrant or OpenAI answer
+@Service
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProductServiceImpl.class);
+
+    private final ElasticsearchAsyncClient asyncClient;
+    private final ElasticsearchServiceImpl elasticsearchService;
+    private final EmbeddingService embeddingService;
+    private final QdrantSearchService qdrantService;
+    private final HybridSearchProperties hybridProperties;
+
+    private final ProductSearchCache.CachedSearch<String> categoryCache;
+    private final ProductSearchCache.CachedSearch<PriceRange> priceRangeCache;
+    private final ProductSearchCache.CachedSearch<String> fuzzyCache;
+    private final ProductSearchCache.CachedSearch<String> ngramCache;
+
+    private final SingleFlight<HybridQuery, List<Product>> hybridFlight = new SingleFlight<>();
+
+    private record PriceRange(double min, double max) {
+    }
+
+    private record HybridQuery(String query, VectorFilter filter) {
+    }
+
+    public ReactiveProductServiceImpl(ElasticsearchAsyncClient asyncClient, ElasticsearchServiceImpl elasticsearchService, EmbeddingService embeddingService,
+                                      QdrantSearchService qdrantService, HybridSearchProperties hybridProperties, ProductSearchCache searchCache,
+                                      MeterRegistry meterRegistry) {
+        this.asyncClient = asyncClient;
+        this.elasticsearchService = elasticsearchService;
+        this.embeddingService = embeddingService;
+        this.qdrantService = qdrantService;
+        this.hybridProperties = hybridProperties;
+
+        this.categoryCache = searchCache.create("category", (category, size) -> categoryPage(category, null, size));
+        this.priceRangeCache = searchCache.create("price-range", (range, size) -> priceRangePage(range, null, size));
+        this.fuzzyCache = searchCache.create("fuzzy", (term, size) -> fuzzyPage(term, null, size));
+        this.ngramCache = searchCache.create("ngram", (term, size) -> ngramPage(term, null, size));
+        FunctionCounter.builder("singleflight.coalesced", hybridFlight, SingleFlight::coalescedCount)
+                .tag("operation", "search")
+                .tag("endpoint", "hybrid")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Product> getProductById(String ean) {
+        return Mono.fromFuture(() -> elasticsearchService.getByIdAsync(AppConstants.INDEX_PRODUCTS, ean, Product.class));
+    }
+
+    @Override
+    public Flux<Product> getProductsByIds(List<String> eans) {
+        return Mono.fromFuture(() -> elasticsearchService.getByIdsAsync(AppConstants.INDEX_PRODUCTS, eans, Product.class))
+                .flatMapIterable(Map::values);
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> getAllProducts(String cursor, Integer size) {
+        return Mono.fromFuture(() -> elasticsearchService.getPageAsync(AppConstants.INDEX_PRODUCTS, cursor, size, Product.class));
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> getProductByCategory(String category, String cursor, Integer size) {
+        // Only first pages are cached, continuations carry their own PIT and search_after position
+        String normalized = category.strip().toLowerCase(Locale.ROOT);
+        return Mono.fromFuture(() -> cursor == null ? categoryCache.get(normalized, size) : categoryPage(normalized, cursor, size));
+    }
+
+    private CompletableFuture<CursorPage<Product>> categoryPage(String category, String cursor, Integer size) {
+        Query query = Query.of(q -> q
+                .match(t -> t
+                        .field("category")
+                        .query(category)
+                        .fuzziness("AUTO")));
+
+        return elasticsearchService.searchPageAsync(AppConstants.INDEX_PRODUCTS, query, cursor, size, Product.class);
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> searchByPriceRange(double minPrice, double maxPrice, String cursor, Integer size) {
+        PriceRange range = new PriceRange(minPrice, maxPrice);
+        return Mono.fromFuture(() -> cursor == null ? priceRangeCache.get(range, size) : priceRangePage(range, cursor, size));
+    }
+
+    private CompletableFuture<CursorPage<Product>> priceRangePage(PriceRange range, String cursor, Integer size) {
+        Query query = Query.of(q -> q
+                .range(r -> r
+                        .field("price")
+                        .gte(JsonData.of(range.min()))
+                        .lte(JsonData.of(range.max()))));
+
+        return elasticsearchService.searchPageAsync(AppConstants.INDEX_PRODUCTS, query, cursor, size, Product.class);
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> fuzzySearch(String searchTerm, String cursor, Integer size) {
+        // Fuzzy queries are not analyzed, so only surrounding whitespace can be dropped from the key
+        String normalized = searchTerm.strip();
+        return Mono.fromFuture(() -> cursor == null ? fuzzyCache.get(normalized, size) : fuzzyPage(normalized, cursor, size));
+    }
+
+    private CompletableFuture<CursorPage<Product>> fuzzyPage(String searchTerm, String cursor, Integer size) {
+        Query query = Query.of(q -> q
+                .bool(b -> b
+                        .should(s -> s
+                                .fuzzy(f -> f
+                                        .field("category")
+                                        .value(searchTerm)
+                                        .fuzziness("AUTO")))
+                        .should(s -> s
+                                .fuzzy(f -> f
+                                        .field("name")
+                                        .value(searchTerm)
+                                        .fuzziness("AUTO")))));
+
+        return elasticsearchService.searchPageAsync(AppConstants.INDEX_PRODUCTS, query, cursor, size, Product.class);
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> getProductsByNgram(String searchTerm, String cursor, Integer size) {
+        String normalized = searchTerm.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return Mono.fromFuture(() -> cursor == null ? ngramCache.get(normalized, size) : ngramPage(normalized, cursor, size));
+    }
+
+    private CompletableFuture<CursorPage<Product>> ngramPage(String searchTerm, String cursor, Integer size) {
+        Query query = Query.of(q -> q
+                .match(m -> m
+                        .field("name.ngram")
+                        .query(searchTerm)
+                        .operator(Operator.And)));
+
+        return elasticsearchService.searchPageAsync(AppConstants.INDEX_PRODUCTS, query, cursor, size, Product.class);
+    }
+
+    @Override
+    public Mono<List<Product>> hybridSearch(String query, VectorFilter filter) {
+        VectorFilter vectorFilter = filter == null ? VectorFilter.NONE : filter;
+        // Identical concurrent searches share one embedding, Qdrant and Elasticsearch round trip
+        return hybridFlight.executeMono(new HybridQuery(query, vectorFilter), () -> runHybridSearch(query, vectorFilter));
+    }
+
+    private Mono<List<Product>> runHybridSearch(String query, VectorFilter vectorFilter) {
+        Mono<List<Hit<Product>>> lexical = lexicalCandidates(query, vectorFilter)
+                .timeout(hybridProperties.getLexicalTimeout())
+                .onErrorResume(e -> {
+                    logger.warn("Lexical leg of hybrid search failed, using vector results only", e);
+                    return Mono.just(List.of());
+                });
+
+        Mono<List<String>> vector = Mono.fromFuture(() -> embeddingService.generateEmbeddingAsync(query))
+                .flatMap(embedding -> qdrantService.searchByEmbedding(embedding, hybridProperties.getCandidateSize(), vectorFilter))
+                .timeout(hybridProperties.getVectorTimeout())
+                .onErrorResume(e -> {
+                    logger.warn("Vector leg of hybrid search failed, using lexical results only", e);
+                    return Mono.just(List.of());
+                });
+
+        return Mono.zip(lexical, vector)
+                .flatMap(legs -> fuseAndHydrate(legs.getT1(), legs.getT2(), vectorFilter));
+    }
+
+    private Mono<List<Hit<Product>>> lexicalCandidates(String searchTerm, VectorFilter filter) {
+        return Mono.fromFuture(() -> asyncClient.search(s -> s
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .query(q -> q
+                                .bool(b -> b
+                                        .should(sh -> sh
+                                                .match(m -> m
+                                                        .field("name")
+                                                        .query(searchTerm)
+                                                        .fuzziness("AUTO")))
+                                        .should(sh -> sh
+                                                .match(m -> m
+                                                        .field("category")
+                                                        .query(searchTerm)
+                                                        .fuzziness("AUTO")))
+                                        .minimumShouldMatch("1")
+                                        .filter(filterClauses(filter))))
+                        .size(hybridProperties.getCandidateSize())
+                        .trackTotalHits(t -> t.enabled(false)), Product.class))
+                .map(response -> response.hits().hits());
+    }
+
+    private List<Query> filterClauses(VectorFilter filter) {
+        List<Query> clauses = new ArrayList<>();
+        if (filter.category() != null) {
+            clauses.add(Query.of(q -> q.term(t -> t.field("category").value(filter.category()))));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            clauses.add(Query.of(q -> q.range(r -> {
+                r.field("price");
+                if (filter.minPrice() != null) {
+                    r.gte(JsonData.of(filter.minPrice()));
+                }
+                if (filter.maxPrice() != null) {
+                    r.lte(JsonData.of(filter.maxPrice()));
+                }
+                return r;
+            })));
+        }
+        if (Boolean.TRUE.equals(filter.inStock())) {
+            clauses.add(Query.of(q -> q.range(r -> r.field("available").gt(JsonData.of(0)))));
+        }
+        return clauses;
+    }
+
+    private Mono<List<Product>> fuseAndHydrate(List<Hit<Product>> lexicalHits, List<String> vectorIds, VectorFilter filter) {
+        Map<String, Product> products = new HashMap<>();
+        List<String> lexicalIds = new ArrayList<>(lexicalHits.size());
+        for (Hit<Product> hit : lexicalHits) {
+            lexicalIds.add(hit.id());
+            products.put(hit.id(), hit.source());
+        }
+
+        List<String> ranked = RankFusion.fuse(
+                List.of(lexicalIds, vectorIds),
+                List.of(hybridProperties.getLexicalWeight(), hybridProperties.getVectorWeight()),
+                hybridProperties.getRrfK(),
+                hybridProperties.getResultSize());
+
+        List<String> missing = ranked.stream()
+                .filter(ean -> !products.containsKey(ean))
+                .toList();
+
+        // Qdrant payload trails the product index by one outbox cycle, so the filter is re-checked on the current documents
+        return Mono.fromFuture(() -> elasticsearchService.getByIdsAsync(AppConstants.INDEX_PRODUCTS, missing, Product.class))
+                .map(hydrated -> {
+                    products.putAll(hydrated);
+                    return ranked.stream()
+                            .map(products::get)
+                            .filter(Objects::nonNull)
+                            .filter(filter::matches)
+                            .toList();
+                });
+    }
+}
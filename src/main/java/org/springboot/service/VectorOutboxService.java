@@ -0,0 +1,13 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import org.springboot.model.VectorOutboxEntry;
+
+public interface VectorOutboxService {
+
+    BulkOperation enqueueOperation(String ean, VectorOutboxEntry.Operation op);
+
+    int processPending();
+
+    long enqueueAllProducts();
+}
@@ -0,0 +1,311 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.config.properties.VectorOutboxProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.exception.DownstreamOverloadedException;
+import org.springboot.model.Product;
+import org.springboot.model.VectorOutboxEntry;
+import org.springboot.utility.AppConstants;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+public class VectorOutboxServiceImpl implements VectorOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorOutboxServiceImpl.class);
+
+    // Keeps parked entries out of every due query; a new enqueue for the EAN replaces the entry and un-parks it
+    private static final long PARKED = 253_402_300_799_999L; // 9999-12-31T23:59:59.999Z
+
+    // An outbox entry this instance holds the lease on, with the version the lease was written at
+    private record Claim(String ean, VectorOutboxEntry entry, long seqNo, long primaryTerm) {
+    }
+
+    private final ElasticsearchClient client;
+    private final ElasticsearchServiceImpl elasticsearchService;
+    private final EmbeddingService embeddingService;
+    private final QdrantSearchService qdrantService;
+    private final VectorOutboxProperties properties;
+    private final PaginationProperties paginationProperties;
+
+    public VectorOutboxServiceImpl(ElasticsearchClient client, ElasticsearchServiceImpl elasticsearchService, EmbeddingService embeddingService,
+                                   QdrantSearchService qdrantService, VectorOutboxProperties properties, PaginationProperties paginationProperties) {
+        this.client = client;
+        this.elasticsearchService = elasticsearchService;
+        this.embeddingService = embeddingService;
+        this.qdrantService = qdrantService;
+        this.properties = properties;
+        this.paginationProperties = paginationProperties;
+    }
+
+    @Override
+    public BulkOperation enqueueOperation(String ean, VectorOutboxEntry.Operation op) {
+        long now = System.currentTimeMillis();
+        VectorOutboxEntry entry = VectorOutboxEntry.builder()
+                .ean(ean)
+                .op(op)
+                .enqueuedAt(now)
+                .nextAttemptAt(now)
+                .touchedAt(now)
+                .build();
+
+        if (op == VectorOutboxEntry.Operation.PAYLOAD) {
+            // A payload refresh never downgrades a pending UPSERT or DELETE. It bumps the entry's seq_no, so a batch that read
+            // the product before this change does not acknowledge it, and makes it due again instead of waiting out a lease
+            return BulkOperation.of(b -> b
+                    .update(u -> u
+                            .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                            .id(ean)
+                            .retryOnConflict(AppConstants.RETRY_ON_CONFLICT)
+                            .action(a -> a
+                                    .doc(Map.of("touchedAt", now, "nextAttemptAt", now))
+                                    .upsert(entry))));
+        }
+
+        // One entry per EAN: a newer operation replaces a pending one
+        return BulkOperation.of(b -> b
+                .index(i -> i
+                        .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                        .id(ean)
+                        .document(entry)));
+    }
+
+    @Override
+    public int processPending() {
+        List<Claim> claims = claim(fetchDueEntries());
+        if (claims.isEmpty()) {
+            return 0;
+        }
+        return sync(claims);
+    }
+
+    // A failing batch is halved until the failing entries are isolated, so one bad product does not hold back the rest
+    private int sync(List<Claim> claims) {
+        try {
+            push(claims);
+        } catch (DownstreamOverloadedException e) {
+            // Splitting would only send more calls to a downstream that is already shedding load
+            logger.warn("Vector sync of {} outbox entries rejected, retrying later: {}", claims.size(), e.getMessage());
+            scheduleRetry(claims, e);
+            return 0;
+        } catch (Exception e) {
+            if (claims.size() == 1) {
+                scheduleRetry(claims, e);
+                return 0;
+            }
+            int half = claims.size() / 2;
+            return sync(claims.subList(0, half)) + sync(claims.subList(half, claims.size()));
+        }
+
+        acknowledge(claims);
+        return claims.size();
+    }
+
+    private void push(List<Claim> claims) {
+        List<String> upsertEans = new ArrayList<>();
+        List<String> payloadEans = new ArrayList<>();
+        List<String> deleteEans = new ArrayList<>();
+        for (Claim claim : claims) {
+            switch (claim.entry().getOp()) {
+                case UPSERT -> upsertEans.add(claim.ean());
+                case PAYLOAD -> payloadEans.add(claim.ean());
+                case DELETE -> deleteEans.add(claim.ean());
+            }
+        }
+
+        // Vectors and payloads are built from the current product state, so a product deleted since loses its point
+        List<String> liveEans = new ArrayList<>(upsertEans);
+        liveEans.addAll(payloadEans);
+        Map<String, Product> products = elasticsearchService.getByIds(AppConstants.INDEX_PRODUCTS, liveEans, Product.class);
+        liveEans.stream()
+                .filter(ean -> !products.containsKey(ean))
+                .forEach(deleteEans::add);
+
+        List<Product> toUpsert = upsertEans.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!toUpsert.isEmpty()) {
+            List<String> texts = toUpsert.stream()
+                    .map(product -> product.getName() + " " + product.getDescription())
+                    .toList();
+            qdrantService.upsertPoints(toUpsert, embeddingService.generateEmbeddings(texts));
+        }
+
+        // Price and stock changes only rewrite the payload, the stored vector is still valid
+        List<Product> toRefresh = payloadEans.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!toRefresh.isEmpty()) {
+            qdrantService.setPayloads(toRefresh);
+        }
+        if (!deleteEans.isEmpty()) {
+            qdrantService.deletePoints(deleteEans);
+        }
+    }
+
+    @Override
+    public long enqueueAllProducts() {
+        long enqueued = 0;
+        String cursor = null;
+
+        do {
+            CursorPage<Product> page = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, cursor, paginationProperties.getMaxPageSize(), Product.class);
+            cursor = page.nextCursor();
+            if (page.items().isEmpty()) {
+                continue;
+            }
+
+            List<BulkOperation> operations = page.items().stream()
+                    .map(product -> enqueueOperation(product.getEan(), VectorOutboxEntry.Operation.UPSERT))
+                    .toList();
+            try {
+                BulkResponse response = client.bulk(b -> b.operations(operations));
+                enqueued += response.items().stream().filter(item -> item.error() == null).count();
+            } catch (IOException e) {
+                if (cursor != null) {
+                    elasticsearchService.closeCursor(cursor);
+                }
+                throw new RuntimeException("Problem with enqueuing products for re-embedding", e);
+            }
+        } while (cursor != null);
+
+        logger.info("Enqueued {} products for re-embedding", enqueued);
+        return enqueued;
+    }
+
+    private List<Hit<VectorOutboxEntry>> fetchDueEntries() {
+        long now = System.currentTimeMillis();
+        try {
+            SearchResponse<VectorOutboxEntry> response = client.search(s -> s
+                    .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                    .query(q -> q
+                            .range(r -> r
+                                    .field("nextAttemptAt")
+                                    .lte(JsonData.of(now))))
+                    .sort(so -> so.field(f -> f.field("enqueuedAt")))
+                    .size(properties.getBatchSize())
+                    .seqNoPrimaryTerm(true)
+                    .trackTotalHits(t -> t.enabled(false)), VectorOutboxEntry.class);
+            return response.hits().hits();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with reading the vector outbox", e);
+        }
+    }
+
+    // Moves nextAttemptAt past the lease with a seq_no guard; entries another instance claimed first are skipped
+    private List<Claim> claim(List<Hit<VectorOutboxEntry>> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        long leaseUntil = System.currentTimeMillis() + properties.getLease().toMillis();
+        List<BulkOperation> operations = new ArrayList<>(hits.size());
+        for (Hit<VectorOutboxEntry> hit : hits) {
+            VectorOutboxEntry entry = hit.source();
+            entry.setNextAttemptAt(leaseUntil);
+            operations.add(BulkOperation.of(b -> b
+                    .index(i -> i
+                            .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                            .id(hit.id())
+                            .ifSeqNo(hit.seqNo())
+                            .ifPrimaryTerm(hit.primaryTerm())
+                            .document(entry))));
+        }
+
+        List<Claim> claims = new ArrayList<>(hits.size());
+        List<BulkResponseItem> items = sendGuarded(operations, false);
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null && item.seqNo() != null && item.primaryTerm() != null) {
+                claims.add(new Claim(item.id(), hits.get(i).source(), item.seqNo(), item.primaryTerm()));
+            }
+        }
+        return claims;
+    }
+
+    private void acknowledge(List<Claim> claims) {
+        List<BulkOperation> operations = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            // The guard keeps an entry that was re-enqueued while this batch was being synced
+            operations.add(BulkOperation.of(b -> b
+                    .delete(d -> d
+                            .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                            .id(claim.ean())
+                            .ifSeqNo(claim.seqNo())
+                            .ifPrimaryTerm(claim.primaryTerm()))));
+        }
+        sendGuarded(operations, true);
+    }
+
+    private void scheduleRetry(List<Claim> claims, Exception cause) {
+        long now = System.currentTimeMillis();
+        List<BulkOperation> operations = new ArrayList<>(claims.size());
+
+        for (Claim claim : claims) {
+            VectorOutboxEntry entry = claim.entry();
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setLastError(String.valueOf(cause.getMessage()));
+            if (entry.getAttempts() >= properties.getMaxAttempts()) {
+                logger.error("Vector sync of EAN {} failed {} times, parking the outbox entry: {}", claim.ean(), entry.getAttempts(),
+                        entry.getLastError());
+                entry.setNextAttemptAt(PARKED);
+                entry.setParkedAt(now);
+            } else {
+                logger.warn("Vector sync of EAN {} failed (attempt {}), retrying later: {}", claim.ean(), entry.getAttempts(),
+                        entry.getLastError());
+                entry.setNextAttemptAt(now + backoffMillis(entry.getAttempts()));
+            }
+
+            operations.add(BulkOperation.of(b -> b
+                    .index(i -> i
+                            .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                            .id(claim.ean())
+                            .ifSeqNo(claim.seqNo())
+                            .ifPrimaryTerm(claim.primaryTerm())
+                            .document(entry))));
+        }
+        sendGuarded(operations, true);
+    }
+
+    private long backoffMillis(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        return Math.min(max, initial << Math.min(attempts - 1, 20));
+    }
+
+    private List<BulkResponseItem> sendGuarded(List<BulkOperation> operations, boolean waitForRefresh) {
+        try {
+            // wait_for keeps handled entries out of the next poll; a claim is protected by its lease instead
+            BulkResponse response = client.bulk(b -> b
+                    .operations(operations)
+                    .refresh(waitForRefresh ? Refresh.WaitFor : Refresh.False));
+
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null && item.status() != 409) {
+                    logger.warn("Vector outbox entry {} could not be updated: {}", item.id(), item.error().reason());
+                }
+            }
+            return response.items();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem with updating the vector outbox", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.springboot.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springboot.config.properties.VectorOutboxProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "vector-store.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class VectorOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorOutboxWorker.class);
+
+    private final VectorOutboxService outboxService;
+    private final VectorOutboxProperties properties;
+
+    public VectorOutboxWorker(VectorOutboxService outboxService, VectorOutboxProperties properties) {
+        this.outboxService = outboxService;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${vector-store.outbox.poll-interval:1s}")
+    public void drain() {
+        try {
+            int processed;
+            do {
+                processed = outboxService.processPending();
+            } while (processed == properties.getBatchSize());
+        } catch (Exception e) {
+            logger.error("Vector outbox could not be drained", e);
+        }
+    }
+}
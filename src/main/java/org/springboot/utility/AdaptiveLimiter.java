@@ -0,0 +1,200 @@
+package org.springboot.utility;
+
+import org.springboot.config.properties.DownstreamLimitProperties;
+import org.springboot.exception.DownstreamOverloadedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one downstream, adjusted with AIMD: a fast successful call while the limit is in use raises
+ * it by one, a failed, throttled or slow call multiplies it by {@code backoffRatio}. Callers over the limit are
+ * rejected with {@link DownstreamOverloadedException} instead of piling up behind a slow backend.
+ */
+public class AdaptiveLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    // A ReentrantLock instead of synchronized, so waiting virtual threads unmount from their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveLimiter(String name, DownstreamLimitProperties.Limit settings) {
+        this.name = name;
+        this.minLimit = Math.max(1, settings.getMinLimit());
+        this.maxLimit = Math.max(minLimit, settings.getMaxLimit());
+        this.backoffRatio = settings.getBackoffRatio();
+        this.slowCallNanos = settings.getSlowCallThreshold().toNanos();
+        this.maxQueue = settings.getMaxQueue();
+        this.maxWaitNanos = settings.getMaxWait().toNanos();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, settings.getInitialLimit()));
+    }
+
+    // For blocking callers, waits up to maxWait for a permit when the queue has room
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                return grant();
+            }
+            if (queued >= maxQueue) {
+                throw reject();
+            }
+
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        throw reject();
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return grant();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // For non-blocking callers, returns null instead of waiting
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                return grant();
+            }
+            rejected.increment();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public DownstreamOverloadedException overloaded() {
+        return new DownstreamOverloadedException(name + " is overloaded, try again later.");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private Permit grant() {
+        inFlight++;
+        return new Permit(inFlight, System.nanoTime());
+    }
+
+    private DownstreamOverloadedException reject() {
+        rejected.increment();
+        return overloaded();
+    }
+
+    private void release(int inFlightAtStart, long elapsedNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.DROPPED || outcome == Outcome.SUCCESS && elapsedNanos > slowCallNanos) {
+                limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            } else if (outcome == Outcome.SUCCESS && inFlightAtStart * 2 >= limit) {
+                // Only grow while at least half of the limit was in use, an idle downstream says nothing about capacity
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    public class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        public void success() {
+            finish(Outcome.SUCCESS);
+        }
+
+        // Timeouts, connection failures and throttling responses
+        public void dropped() {
+            finish(Outcome.DROPPED);
+        }
+
+        // Releases the permit without judging the downstream, e.g. when the caller is no longer interested
+        public void ignore() {
+            finish(Outcome.IGNORED);
+        }
+
+        // Operators like timeout() cancel the call instead of failing it, so a cancel after the slow-call threshold is a drop
+        public void cancelled() {
+            finish(System.nanoTime() - startNanos > slowCallNanos ? Outcome.DROPPED : Outcome.IGNORED);
+        }
+
+        private void finish(Outcome outcome) {
+            if (done.compareAndSet(false, true)) {
+                release(inFlightAtStart, System.nanoTime() - startNanos, outcome);
+            }
+        }
+    }
+}
@@ -4,5 +4,17 @@ public class AppConstants {
     public static final String INDEX_ORDERS = "orders-002";
     public static final String INDEX_CUSTOMERS = "customers-002";
     public static final String INDEX_PRODUCTS = "products-002";
+    public static final String INDEX_VECTOR_OUTBOX = "vector-outbox-002";
+    public static final String INDEX_CATALOG_VERSION = "catalog-version-002";
+    public static final String CATALOG_VERSION_ID = "products";
     public static final String DEFAULT_CUSTOMER_ROLE = "USER";
+    public static final String SCRIPT_PRODUCT_SELL = "product-sell";
+    public static final String SCRIPT_PRODUCT_RESTOCK = "product-restock";
+    public static final String SCRIPT_CUSTOMER_ADD_ORDER = "customer-add-order";
+    public static final String SCRIPT_CUSTOMER_REMOVE_ORDER = "customer-remove-order";
+    public static final int RETRY_ON_CONFLICT = 3;
+    public static final int MAX_BATCH_IDS = 1000;
+    public static final String DOWNSTREAM_ELASTICSEARCH = "elasticsearch";
+    public static final String DOWNSTREAM_OPENAI = "openai";
+    public static final String DOWNSTREAM_QDRANT = "qdrant";
 }
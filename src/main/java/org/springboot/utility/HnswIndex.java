@@ -0,0 +1,660 @@
+package org.springboot.utility;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world graph for cosine similarity over fixed-size float vectors.
+ * <p>
+ * Vectors, node records (id, level, tombstone) and both graph layers live in memory-mapped files, so a restart maps
+ * them back instead of rebuilding the graph. {@link #flush()} forces the dirty pages and rewrites a fixed-size header
+ * holding the node count, which is the commit point: after a crash, nodes past it are dropped and so are links that
+ * point at them. Re-adding an id overwrites its vector in place and a removed node's slot is taken by the next new id,
+ * so the files grow with the number of live vectors, not with the number of updates. Each file is one mapping of at
+ * most 2 GB, which caps the index at about 349k vectors of 1536 dimensions; {@link #add} fails once it is full.
+ */
+public final class HnswIndex implements Closeable {
+
+    public record Result(long id, float score) {
+    }
+
+    private record Candidate(int node, float distance) {
+    }
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAX_LEVEL = 15;
+    private static final String VECTORS_FILE = "vectors.bin";
+    private static final String GRAPH_FILE = "graph-level0.bin";
+    private static final String UPPER_GRAPH_FILE = "graph-upper.bin";
+    private static final String NODES_FILE = "nodes.bin";
+    private static final String META_FILE = "meta.bin";
+
+    // Node record: id (long), offset of the upper layer links (int), level (byte), tombstone (byte), 2 bytes padding
+    private static final int NODE_BYTES = 16;
+    private static final int UPPER_OFFSET = 8;
+    private static final int LEVEL_OFFSET = 12;
+    private static final int DELETED_OFFSET = 13;
+
+    private final Path directory;
+    private final int dimensions;
+    private final int m;
+    private final int maxLevel0Links;
+    private final int level0Stride;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final int upperStride;
+    private final FileChannel vectorChannel;
+    private final FileChannel graphChannel;
+    private final FileChannel upperChannel;
+    private final FileChannel nodeChannel;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> nodesById = new HashMap<>();
+    // Slots of removed nodes, taken by the next new ids
+    private final Deque<Integer> freeNodes = new ArrayDeque<>();
+
+    private MappedByteBuffer vectorMap;
+    private MappedByteBuffer graphMap;
+    private MappedByteBuffer upperMap;
+    private MappedByteBuffer nodeMap;
+    private FloatBuffer vectors;
+    private IntBuffer graph;
+    private IntBuffer upper;
+    private ByteBuffer nodes;
+    private int capacity;
+    private int upperCapacity;
+    private int upperUsed;
+    private int count;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private HnswIndex(Path directory, int dimensions, int m, int efConstruction, int initialCapacity) throws IOException {
+        this.directory = directory;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxLevel0Links = 2 * m;
+        this.level0Stride = 1 + maxLevel0Links;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.upperStride = 1 + m;
+
+        this.vectorChannel = openChannel(VECTORS_FILE);
+        this.graphChannel = openChannel(GRAPH_FILE);
+        this.upperChannel = openChannel(UPPER_GRAPH_FILE);
+        this.nodeChannel = openChannel(NODES_FILE);
+
+        try {
+            Path meta = directory.resolve(META_FILE);
+            boolean existing = Files.exists(meta);
+            if (existing) {
+                readMeta(meta);
+            } else {
+                this.capacity = Math.max(1, initialCapacity);
+                // A node has about 1/(m-1) upper layer lists of m+1 ints, so two ints per node slot is plenty to start with
+                this.upperCapacity = Math.max(MAX_LEVEL * upperStride, 2 * capacity);
+            }
+            map(capacity, upperCapacity);
+            if (existing) {
+                loadNodes();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeChannels();
+            throw e;
+        }
+    }
+
+    public static HnswIndex open(Path directory, int dimensions, int m, int efConstruction, int initialCapacity) throws IOException {
+        if (dimensions < 1 || m < 2) {
+            throw new IllegalArgumentException("HNSW index needs at least 1 dimension and m >= 2");
+        }
+        Files.createDirectories(directory);
+        return new HnswIndex(directory, dimensions, m, efConstruction, initialCapacity);
+    }
+
+    public void add(long id, float[] vector) {
+        float[] query = normalize(vector);
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodesById.get(id);
+            if (existing != null) {
+                replace(existing, id, query);
+                return;
+            }
+            Integer free = freeNodes.poll();
+            if (free != null) {
+                replace(free, id, query);
+                nodesById.put(id, free);
+                return;
+            }
+            if (count == capacity) {
+                grow();
+            }
+
+            int node = count;
+            int level = randomLevel();
+            int upperOffset = level > 0 ? allocateUpperLinks(level) : 0;
+            vectors.put(node * dimensions, query);
+            graph.put(node * level0Stride, 0);
+            writeNode(node, id, level, upperOffset);
+            count++;
+            nodesById.put(id, node);
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+
+            connect(node, query, level);
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem with growing HNSW index in " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesById.remove(id);
+            if (node == null) {
+                return false;
+            }
+            // The node keeps routing searches until its slot is taken by a new id
+            nodes.put(node * NODE_BYTES + DELETED_OFFSET, (byte) 1);
+            freeNodes.add(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Result> search(float[] vector, int k, int ef) {
+        float[] query = normalize(vector);
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+
+            int current = entryPoint;
+            for (int layer = maxLevel; layer > 0; layer--) {
+                current = greedyClosest(query, current, layer);
+            }
+
+            List<Result> results = new ArrayList<>(k);
+            for (Candidate candidate : searchLayer(query, current, Math.max(ef, k), 0)) {
+                if (!isDeleted(candidate.node())) {
+                    results.add(new Result(id(candidate.node()), 1 - candidate.distance()));
+                    if (results.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Result> exactSearch(float[] vector, int k) {
+        float[] query = normalize(vector);
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+            for (int node = 0; node < count; node++) {
+                if (isDeleted(node)) {
+                    continue;
+                }
+                float distance = distance(query, node);
+                if (best.size() < k || distance < best.peek().distance()) {
+                    best.add(new Candidate(node, distance));
+                    if (best.size() > k) {
+                        best.poll();
+                    }
+                }
+            }
+            return best.stream()
+                    .sorted(Comparator.comparingDouble(Candidate::distance))
+                    .map(candidate -> new Result(id(candidate.node()), 1 - candidate.distance()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only dirty pages are written, plus the fixed-size header, so a flush costs the same at any index size
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            vectorMap.force();
+            graphMap.force();
+            upperMap.force();
+            nodeMap.force();
+            writeMeta();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        closeChannels();
+    }
+
+    // Overwrites the vector of a live node or a removed node's slot and links it again at the slot's level. Other
+    // nodes keep their links to the slot, they stay valid routes and are replaced as those nodes re-select links.
+    private void replace(int node, long id, float[] query) {
+        vectors.put(node * dimensions, query);
+        writeNode(node, id, level(node), upperOffset(node));
+        connect(node, query, level(node));
+    }
+
+    private void connect(int node, float[] query, int level) {
+        int current = entryPoint;
+        for (int layer = maxLevel; layer > level; layer--) {
+            current = greedyClosest(query, current, layer);
+        }
+        for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+            List<Candidate> candidates = searchLayer(query, current, efConstruction, layer);
+            candidates.removeIf(candidate -> candidate.node() == node);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            int maxLinks = layer == 0 ? maxLevel0Links : m;
+
+            setLinkCount(node, layer, 0);
+            for (Candidate neighbour : selectNeighbours(candidates, m)) {
+                appendLink(node, layer, neighbour.node(), maxLinks);
+                appendLink(neighbour.node(), layer, node, maxLinks);
+            }
+            current = candidates.get(0).node();
+        }
+    }
+
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+        BitSet visited = new BitSet(count);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate start = new Candidate(entry, distance(query, entry));
+        visited.set(entry);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.distance() > results.peek().distance()) {
+                break;
+            }
+
+            int links = linkCount(closest.node(), layer);
+            for (int i = 0; i < links; i++) {
+                int neighbour = link(closest.node(), layer, i);
+                if (neighbour >= count || visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+
+                float distance = distance(query, neighbour);
+                if (results.size() < ef || distance < results.peek().distance()) {
+                    Candidate candidate = new Candidate(neighbour, distance);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(Candidate::distance));
+        return sorted;
+    }
+
+    private int greedyClosest(float[] query, int entry, int layer) {
+        int current = entry;
+        float currentDistance = distance(query, current);
+
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int node = current;
+            int links = linkCount(node, layer);
+            for (int i = 0; i < links; i++) {
+                int neighbour = link(node, layer, i);
+                if (neighbour >= count) {
+                    continue;
+                }
+                float distance = distance(query, neighbour);
+                if (distance < currentDistance) {
+                    current = neighbour;
+                    currentDistance = distance;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void appendLink(int node, int layer, int neighbour, int maxLinks) {
+        int links = linkCount(node, layer);
+        for (int i = 0; i < links; i++) {
+            if (link(node, layer, i) == neighbour) {
+                return;
+            }
+        }
+        if (links < maxLinks) {
+            setLink(node, layer, links, neighbour);
+            setLinkCount(node, layer, links + 1);
+            return;
+        }
+
+        // Full list: re-select from the current links plus the new one
+        float[] origin = vector(node);
+        List<Candidate> all = new ArrayList<>(links + 1);
+        for (int i = 0; i < links; i++) {
+            int existing = link(node, layer, i);
+            all.add(new Candidate(existing, distance(origin, existing)));
+        }
+        all.add(new Candidate(neighbour, distance(origin, neighbour)));
+        all.sort(Comparator.comparingDouble(Candidate::distance));
+
+        List<Candidate> selected = selectNeighbours(all, maxLinks);
+        for (int i = 0; i < selected.size(); i++) {
+            setLink(node, layer, i, selected.get(i).node());
+        }
+        setLinkCount(node, layer, selected.size());
+    }
+
+    // Heuristic from the HNSW paper: skip a candidate that is closer to an already selected neighbour than to the
+    // base node, so links spread in different directions instead of clustering. Candidates must be sorted by distance.
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<float[]> selectedVectors = new ArrayList<>(max);
+
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max) {
+                break;
+            }
+            float[] candidateVector = vector(candidate.node());
+            boolean diverse = true;
+            for (float[] selectedVector : selectedVectors) {
+                if (distance(candidateVector, selectedVector) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+                selectedVectors.add(candidateVector);
+            }
+        }
+        return selected;
+    }
+
+    private int linkCount(int node, int layer) {
+        return layer == 0 ? graph.get(node * level0Stride) : upper.get(upperBase(node, layer));
+    }
+
+    private int link(int node, int layer, int i) {
+        return layer == 0 ? graph.get(node * level0Stride + 1 + i) : upper.get(upperBase(node, layer) + 1 + i);
+    }
+
+    private void setLinkCount(int node, int layer, int links) {
+        if (layer == 0) {
+            graph.put(node * level0Stride, links);
+        } else {
+            upper.put(upperBase(node, layer), links);
+        }
+    }
+
+    private void setLink(int node, int layer, int i, int neighbour) {
+        if (layer == 0) {
+            graph.put(node * level0Stride + 1 + i, neighbour);
+        } else {
+            upper.put(upperBase(node, layer) + 1 + i, neighbour);
+        }
+    }
+
+    private int upperBase(int node, int layer) {
+        return upperOffset(node) + (layer - 1) * upperStride;
+    }
+
+    private long id(int node) {
+        return nodes.getLong(node * NODE_BYTES);
+    }
+
+    private int upperOffset(int node) {
+        return nodes.getInt(node * NODE_BYTES + UPPER_OFFSET);
+    }
+
+    private int level(int node) {
+        return nodes.get(node * NODE_BYTES + LEVEL_OFFSET);
+    }
+
+    private boolean isDeleted(int node) {
+        return nodes.get(node * NODE_BYTES + DELETED_OFFSET) != 0;
+    }
+
+    private void writeNode(int node, long id, int level, int upperOffset) {
+        int base = node * NODE_BYTES;
+        nodes.putLong(base, id);
+        nodes.putInt(base + UPPER_OFFSET, upperOffset);
+        nodes.put(base + LEVEL_OFFSET, (byte) level);
+        nodes.put(base + DELETED_OFFSET, (byte) 0);
+    }
+
+    // Space past the persisted upper layer usage may hold links of nodes lost in a crash, so link counts are reset
+    private int allocateUpperLinks(int level) throws IOException {
+        int size = level * upperStride;
+        if (upperUsed + size > upperCapacity) {
+            long needed = (long) upperUsed + size;
+            long grown = upperCapacity;
+            while (grown < needed) {
+                grown *= 2;
+            }
+            int maxUpperCapacity = Integer.MAX_VALUE / Integer.BYTES;
+            if (needed > maxUpperCapacity) {
+                throw new IllegalStateException("Embedded HNSW index in " + directory + " has no room for more upper layer links");
+            }
+            map(capacity, (int) Math.min(grown, maxUpperCapacity));
+        }
+
+        int offset = upperUsed;
+        for (int layer = 0; layer < level; layer++) {
+            upper.put(offset + layer * upperStride, 0);
+        }
+        upperUsed += size;
+        return offset;
+    }
+
+    private float distance(float[] query, int node) {
+        int base = node * dimensions;
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += query[i] * vectors.get(base + i);
+        }
+        return 1 - dot;
+    }
+
+    private float distance(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1 - dot;
+    }
+
+    private float[] vector(int node) {
+        float[] vector = new float[dimensions];
+        vectors.get(node * dimensions, vector);
+        return vector;
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Vector must be " + dimensions + " dimensions, got " + vector.length);
+        }
+
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        float[] normalized = vector.clone();
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= scale;
+            }
+        }
+        return normalized;
+    }
+
+    private int randomLevel() {
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(random) * levelMultiplier));
+    }
+
+    // Doubles up to the largest capacity a single mapping per file can hold
+    private void grow() throws IOException {
+        int maxCapacity = maxCapacity();
+        if (capacity >= maxCapacity) {
+            throw new IllegalStateException("Embedded HNSW index in " + directory + " is full at " + capacity + " vectors of "
+                    + dimensions + " dimensions");
+        }
+        map((int) Math.min(2L * capacity, maxCapacity), upperCapacity);
+    }
+
+    private int maxCapacity() {
+        long bytesPerNode = Math.max((long) dimensions * Float.BYTES, Math.max((long) level0Stride * Integer.BYTES, NODE_BYTES));
+        return (int) (Integer.MAX_VALUE / bytesPerNode);
+    }
+
+    // The new capacities are only taken over once every file is mapped, a failed mapping leaves the index as it was
+    private void map(int newCapacity, int newUpperCapacity) throws IOException {
+        if (newCapacity > maxCapacity()) {
+            throw new IllegalStateException("Embedded HNSW index can not hold " + newCapacity + " vectors of " + dimensions + " dimensions");
+        }
+
+        MappedByteBuffer newVectorMap = vectorChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * dimensions * Float.BYTES);
+        MappedByteBuffer newGraphMap = graphChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * level0Stride * Integer.BYTES);
+        MappedByteBuffer newUpperMap = upperChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newUpperCapacity * Integer.BYTES);
+        MappedByteBuffer newNodeMap = nodeChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * NODE_BYTES);
+
+        vectorMap = newVectorMap;
+        graphMap = newGraphMap;
+        upperMap = newUpperMap;
+        nodeMap = newNodeMap;
+        vectors = vectorMap.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        graph = graphMap.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        upper = upperMap.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        nodes = nodeMap.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = newCapacity;
+        upperCapacity = newUpperCapacity;
+    }
+
+    private FileChannel openChannel(String file) throws IOException {
+        return FileChannel.open(directory.resolve(file), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void closeChannels() throws IOException {
+        vectorChannel.close();
+        graphChannel.close();
+        upperChannel.close();
+        nodeChannel.close();
+    }
+
+    private void writeMeta() throws IOException {
+        Path temp = directory.resolve(META_FILE + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(m);
+            out.writeInt(capacity);
+            out.writeInt(upperCapacity);
+            out.writeInt(upperUsed);
+            out.writeInt(count);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+        }
+        Files.move(temp, directory.resolve(META_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readMeta(Path meta) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(meta)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported HNSW index format in " + directory);
+            }
+            if (in.readInt() != dimensions || in.readInt() != m) {
+                throw new IllegalStateException("HNSW index in " + directory + " was built with different dimensions or m");
+            }
+
+            capacity = in.readInt();
+            upperCapacity = in.readInt();
+            upperUsed = in.readInt();
+            count = in.readInt();
+            entryPoint = in.readInt();
+            maxLevel = in.readInt();
+        }
+    }
+
+    // Links written to persisted nodes after the last flush may point at slots past the persisted count, which new
+    // nodes will take with unrelated vectors, so they are dropped here
+    private void loadNodes() {
+        for (int node = 0; node < count; node++) {
+            if (isDeleted(node)) {
+                freeNodes.add(node);
+            } else {
+                nodesById.put(id(node), node);
+            }
+
+            for (int layer = 0; layer <= level(node); layer++) {
+                int links = linkCount(node, layer);
+                int kept = 0;
+                for (int i = 0; i < links; i++) {
+                    int neighbour = link(node, layer, i);
+                    if (neighbour < count) {
+                        setLink(node, layer, kept++, neighbour);
+                    }
+                }
+                if (kept < links) {
+                    setLinkCount(node, layer, kept);
+                }
+            }
+        }
+    }
+}
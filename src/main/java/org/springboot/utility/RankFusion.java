@@ -0,0 +1,35 @@
+package org.springboot.utility;
+
+import java.util.*;
+
+public final class RankFusion {
+
+    private RankFusion() {
+    }
+
+    /**
+     * Weighted reciprocal rank fusion: every list contributes weight / (k + rank) for each id it contains,
+     * rank starting at 1. Ids with equal scores keep the order in which they were first seen.
+     */
+    public static List<String> fuse(List<List<String>> rankings, List<Double> weights, int k, int limit) {
+        if (rankings.size() != weights.size()) {
+            throw new IllegalArgumentException("Expected " + rankings.size() + " weights, got " + weights.size());
+        }
+
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (int list = 0; list < rankings.size(); list++) {
+            List<String> ranking = rankings.get(list);
+            double weight = weights.get(list);
+
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                scores.merge(ranking.get(rank), weight / (k + rank + 1), Double::sum);
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
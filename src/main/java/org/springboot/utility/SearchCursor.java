@@ -0,0 +1,86 @@
+package org.springboot.utility;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque continuation token of a paged search: the point in time the first page was read from and the sort values of
+ * the last hit returned. {@code scope} is a hash of the index and query, so a cursor can not be replayed against
+ * another search.
+ */
+public record SearchCursor(String pitId, List<Object> searchAfter, String scope) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static SearchCursor of(String pitId, List<FieldValue> sort, String scope) {
+        List<Object> values = new ArrayList<>(sort.size());
+        for (FieldValue value : sort) {
+            values.add(value._get());
+        }
+        return new SearchCursor(pitId, values, scope);
+    }
+
+    public static String scope(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public List<FieldValue> toFieldValues() {
+        List<FieldValue> values = new ArrayList<>(searchAfter.size());
+        for (Object value : searchAfter) {
+            if (value == null) {
+                values.add(FieldValue.NULL);
+            } else if (value instanceof Double || value instanceof Float) {
+                values.add(FieldValue.of(((Number) value).doubleValue()));
+            } else if (value instanceof Number number) {
+                values.add(FieldValue.of(number.longValue()));
+            } else if (value instanceof Boolean bool) {
+                values.add(FieldValue.of(bool));
+            } else {
+                values.add(FieldValue.of(value.toString()));
+            }
+        }
+        return values;
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor can not be encoded", e);
+        }
+    }
+
+    public static SearchCursor decode(String token, String expectedScope) {
+        SearchCursor cursor;
+        try {
+            cursor = MAPPER.readValue(Base64.getUrlDecoder().decode(token), SearchCursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+        if (cursor.pitId() == null || cursor.searchAfter() == null || cursor.scope() == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        if (expectedScope != null && !expectedScope.equals(cursor.scope())) {
+            throw new IllegalArgumentException("Cursor belongs to a different search, start again without a cursor.");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,884 @@
+package org.springboot.service;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch._types.OpType;
+import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetOperation;
+import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
+import co.elastic.clients.elasticsearch.indices.ExistsRequest;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.Endpoint;
+import co.elastic.clients.transport.JsonEndpoint;
+import co.elastic.clients.transport.TransportOptions;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.transport.endpoints.EndpointWithResponseMapperAttr;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import org.springboot.utility.AppConstants;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for an Elasticsearch cluster with one shard per index, for service tests and benchmarks that
+ * should not need Docker. Covers the get, mget, index, update, delete, bulk, search and point-in-time endpoints the
+ * services call, plus the index and stored script creation of {@code IndexBootstrapper} so the whole application can
+ * start on it. Responses are decoded by the endpoints' own deserializers, exactly as with the REST transport.
+ * <p>
+ * Only a subset of Elasticsearch is emulated: the stored scripts of {@code elasticsearch/scripts} are ported to Java,
+ * queries support {@code match_all}, {@code ids}, {@code term(s)}, {@code match}, {@code fuzzy}, {@code range} and
+ * {@code bool}, every hit scores 1.0 and a point in time sees live data instead of a snapshot.
+ * <p>
+ * Each request counts as one round trip per operation ({@code "bulk"}, {@code "get"}, ...) and can be delayed by a
+ * fixed or sampled latency, so round trips and throughput can be measured deterministically.
+ */
+public class InMemoryElasticsearchTransport implements ElasticsearchTransport {
+
+    /**
+     * Java port of a stored script. Changes {@code source} in place, returning false sets {@code ctx.op = 'noop'}.
+     */
+    @FunctionalInterface
+    public interface StoredScript {
+
+        boolean apply(ObjectNode source, JsonNode params);
+    }
+
+    private record Document(ObjectNode source, long seqNo, long version, long shardDoc) {
+    }
+
+    private static class Failure extends RuntimeException {
+
+        private final int status;
+        private final String type;
+
+        Failure(int status, String type, String reason) {
+            super(reason);
+            this.status = status;
+            this.type = type;
+        }
+    }
+
+    private static final long PRIMARY_TERM = 1;
+
+    private final JsonpMapper mapper;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, Map<String, Document>> indices = new HashMap<>();
+    private final Map<String, List<String>> pointsInTime = new HashMap<>();
+    private final Map<String, StoredScript> scripts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> roundTrips = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Duration>> latencies = new ConcurrentHashMap<>();
+    private volatile Supplier<Duration> latency = () -> Duration.ZERO;
+    private long seqNo;
+    private long shardDoc;
+
+    public InMemoryElasticsearchTransport(JsonpMapper mapper) {
+        this.mapper = mapper;
+
+        registerScript(AppConstants.SCRIPT_PRODUCT_SELL, (source, params) -> {
+            int quantity = params.path("quantity").asInt();
+            int available = source.path("available").asInt(0);
+            if (available < quantity) {
+                return false;
+            }
+            source.put("available", available - quantity);
+            source.put("sold", source.path("sold").asInt(0) + quantity);
+            return true;
+        });
+        registerScript(AppConstants.SCRIPT_PRODUCT_RESTOCK, (source, params) -> {
+            int quantity = params.path("quantity").asInt();
+            source.put("available", source.path("available").asInt(0) + quantity);
+            source.put("sold", Math.max(0, source.path("sold").asInt(0) - quantity));
+            return true;
+        });
+        registerScript(AppConstants.SCRIPT_CUSTOMER_ADD_ORDER, (source, params) -> {
+            if (!source.path("orderIds").isArray()) {
+                source.putArray("orderIds");
+            }
+            ((ArrayNode) source.get("orderIds")).add(params.path("orderId").asText());
+            return true;
+        });
+        registerScript(AppConstants.SCRIPT_CUSTOMER_REMOVE_ORDER, (source, params) -> {
+            if (!(source.get("orderIds") instanceof ArrayNode orderIds)) {
+                return false;
+            }
+            boolean removed = false;
+            for (Iterator<JsonNode> ids = orderIds.elements(); ids.hasNext(); ) {
+                if (ids.next().asText().equals(params.path("orderId").asText())) {
+                    ids.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        });
+    }
+
+    public void registerScript(String id, StoredScript script) {
+        scripts.put(id, script);
+    }
+
+    // Applied before every request, an operation-specific latency replaces the default one
+    public void setLatency(Duration latency) {
+        setLatency(() -> latency);
+    }
+
+    // Sampled per request, e.g. from a latency distribution
+    public void setLatency(Supplier<Duration> latency) {
+        this.latency = latency;
+    }
+
+    public void setLatency(String operation, Duration latency) {
+        latencies.put(operation, () -> latency);
+    }
+
+    public long roundTrips() {
+        return roundTrips.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long roundTrips(String operation) {
+        LongAdder counter = roundTrips.get(operation);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public void resetRoundTrips() {
+        roundTrips.clear();
+    }
+
+    // Seeding and inspecting documents does not count as a round trip
+    public synchronized void putDocument(String index, String id, Object document) {
+        indexDocument(index, id, toNode(document), false, null, null);
+    }
+
+    public synchronized <T> Optional<T> document(String index, String id, Class<T> clazz) {
+        Document document = documents(index).get(id);
+        return Optional.ofNullable(document).map(doc -> json.convertValue(doc.source(), clazz));
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> ResponseT performRequest(RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                  TransportOptions options) throws IOException {
+        String operation = operation(request);
+        Duration delay = latencyOf(operation);
+        try {
+            if (!delay.isZero()) {
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the injected latency");
+        }
+        return execute(request, endpoint, operation);
+    }
+
+    @Override
+    public <RequestT, ResponseT, ErrorT> CompletableFuture<ResponseT> performRequestAsync(RequestT request, Endpoint<RequestT, ResponseT, ErrorT> endpoint,
+                                                                                         TransportOptions options) {
+        CompletableFuture<ResponseT> future = new CompletableFuture<>();
+        try {
+            String operation = operation(request);
+            Duration delay = latencyOf(operation);
+            // The latency is waited out on a timer, not on the caller's thread
+            Executor executor = delay.isZero()
+                    ? Runnable::run
+                    : CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS);
+            executor.execute(() -> {
+                try {
+                    future.complete(execute(request, endpoint, operation));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public JsonpMapper jsonpMapper() {
+        return mapper;
+    }
+
+    @Override
+    public TransportOptions options() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Duration latencyOf(String operation) {
+        return latencies.getOrDefault(operation, latency).get();
+    }
+
+    private String operation(Object request) {
+        return switch (request) {
+            case GetRequest ignored -> "get";
+            case MgetRequest ignored -> "mget";
+            case IndexRequest<?> ignored -> "index";
+            case UpdateRequest<?, ?> ignored -> "update";
+            case DeleteRequest ignored -> "delete";
+            case BulkRequest ignored -> "bulk";
+            case SearchRequest ignored -> "search";
+            case OpenPointInTimeRequest ignored -> "open_point_in_time";
+            case ClosePointInTimeRequest ignored -> "close_point_in_time";
+            case ExistsRequest ignored -> "indices.exists";
+            case CreateIndexRequest ignored -> "indices.create";
+            case PutScriptRequest ignored -> "put_script";
+            default -> throw new UnsupportedOperationException(request.getClass().getSimpleName() + " is not supported by the in-memory transport");
+        };
+    }
+
+    private <ResponseT> ResponseT execute(Object request, Endpoint<?, ResponseT, ?> endpoint, String operation) {
+        roundTrips.computeIfAbsent(operation, key -> new LongAdder()).increment();
+
+        // HEAD requests answer with the status only, there is no body to decode
+        if (request instanceof ExistsRequest exists) {
+            synchronized (this) {
+                @SuppressWarnings("unchecked")
+                ResponseT response = (ResponseT) new BooleanResponse(indices.keySet().containsAll(exists.index()));
+                return response;
+            }
+        }
+
+        ObjectNode body;
+        try {
+            synchronized (this) {
+                body = switch (request) {
+                    case GetRequest get -> getResult(get.index(), get.id(), documents(get.index()).get(get.id()));
+                    case MgetRequest mget -> mget(mget);
+                    case IndexRequest<?> index -> indexDocument(index.index(), index.id(), toNode(index.document()),
+                            index.opType() == OpType.Create, index.ifSeqNo(), index.ifPrimaryTerm());
+                    case UpdateRequest<?, ?> update -> updateDocument(update.index(), update.id(), toNode(update));
+                    case DeleteRequest delete -> deleteDocument(delete.index(), delete.id(), delete.ifSeqNo(), delete.ifPrimaryTerm());
+                    case BulkRequest bulk -> bulk(bulk);
+                    case SearchRequest search -> search(search);
+                    case OpenPointInTimeRequest open -> openPointInTime(open);
+                    case ClosePointInTimeRequest close -> closePointInTime(close);
+                    case CreateIndexRequest create -> createIndex(create);
+                    // The painless source is not interpreted, scripts run from their Java ports registered by id
+                    case PutScriptRequest ignored -> json.createObjectNode().put("acknowledged", true);
+                    default -> throw new UnsupportedOperationException(operation);
+                };
+            }
+        } catch (Failure e) {
+            throw new ElasticsearchException(endpoint.id(), ErrorResponse.of(r -> r
+                    .status(e.status)
+                    .error(c -> c
+                            .type(e.type)
+                            .reason(e.getMessage()))));
+        }
+        return decode(body, endpoint);
+    }
+
+    // Generic endpoints (get, search, ...) carry the deserializer of the caller's document class as a mapper attribute
+    @SuppressWarnings("unchecked")
+    private <ResponseT> ResponseT decode(ObjectNode body, Endpoint<?, ResponseT, ?> endpoint) {
+        JsonpMapper responseMapper = endpoint instanceof EndpointWithResponseMapperAttr<?, ?, ?> withAttr
+                ? withAttr.mapper(mapper)
+                : mapper;
+        JsonpDeserializer<ResponseT> deserializer = ((JsonEndpoint<?, ResponseT, ?>) endpoint).responseDeserializer();
+        try (JsonParser parser = responseMapper.jsonProvider().createParser(new StringReader(body.toString()))) {
+            return deserializer.deserialize(parser, responseMapper);
+        }
+    }
+
+    private JsonNode toNode(Object value) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+            mapper.serialize(value, generator);
+        }
+        try {
+            return json.readTree(out.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, Document> documents(String index) {
+        return indices.computeIfAbsent(index, key -> new LinkedHashMap<>());
+    }
+
+    private ObjectNode getResult(String index, String id, Document document) {
+        ObjectNode result = json.createObjectNode()
+                .put("_index", index)
+                .put("_id", id)
+                .put("found", document != null);
+        if (document != null) {
+            result.put("_version", document.version())
+                    .put("_seq_no", document.seqNo())
+                    .put("_primary_term", PRIMARY_TERM)
+                    .set("_source", document.source().deepCopy());
+        }
+        return result;
+    }
+
+    private ObjectNode mget(MgetRequest request) {
+        ObjectNode body = json.createObjectNode();
+        ArrayNode docs = body.putArray("docs");
+        for (String id : request.ids()) {
+            docs.add(getResult(request.index(), id, documents(request.index()).get(id)));
+        }
+        for (MultiGetOperation doc : request.docs()) {
+            String index = doc.index() != null ? doc.index() : request.index();
+            docs.add(getResult(index, doc.id(), documents(index).get(doc.id())));
+        }
+        return body;
+    }
+
+    private ObjectNode writeResult(String index, String id, long seqNo, long version, String result) {
+        ObjectNode response = json.createObjectNode()
+                .put("_index", index)
+                .put("_id", id)
+                .put("_version", version)
+                .put("result", result)
+                .put("_seq_no", seqNo)
+                .put("_primary_term", PRIMARY_TERM);
+        response.putObject("_shards")
+                .put("total", 1)
+                .put("successful", 1)
+                .put("failed", 0);
+        return response;
+    }
+
+    private void checkVersion(String id, Document existing, Long ifSeqNo, Long ifPrimaryTerm) {
+        if (ifSeqNo == null && ifPrimaryTerm == null) {
+            return;
+        }
+        if (existing == null || !Objects.equals(ifSeqNo, existing.seqNo()) || ifPrimaryTerm != null && ifPrimaryTerm != PRIMARY_TERM) {
+            throw new Failure(409, "version_conflict_engine_exception", "[" + id + "]: version conflict, required seqNo [" + ifSeqNo + "]");
+        }
+    }
+
+    private ObjectNode indexDocument(String index, String id, JsonNode source, boolean create, Long ifSeqNo, Long ifPrimaryTerm) {
+        String documentId = id != null ? id : UUID.randomUUID().toString();
+        Document existing = documents(index).get(documentId);
+        checkVersion(documentId, existing, ifSeqNo, ifPrimaryTerm);
+        if (create && existing != null) {
+            throw new Failure(409, "version_conflict_engine_exception", "[" + documentId + "]: version conflict, document already exists");
+        }
+
+        Document stored = store(index, documentId, (ObjectNode) source, existing);
+        return existing == null
+                ? writeResult(index, documentId, stored.seqNo(), stored.version(), "created")
+                : writeResult(index, documentId, stored.seqNo(), stored.version(), "updated");
+    }
+
+    private Document store(String index, String id, ObjectNode source, Document existing) {
+        Document stored = existing == null
+                ? new Document(source, seqNo++, 1, shardDoc++)
+                : new Document(source, seqNo++, existing.version() + 1, existing.shardDoc());
+        documents(index).put(id, stored);
+        return stored;
+    }
+
+    private ObjectNode updateDocument(String index, String id, JsonNode action) {
+        Document existing = documents(index).get(id);
+        if (existing == null) {
+            if (action.has("upsert")) {
+                return withSource(indexDocument(index, id, action.get("upsert"), true, null, null), action, action.get("upsert"));
+            }
+            if (action.path("doc_as_upsert").asBoolean() && action.has("doc")) {
+                return withSource(indexDocument(index, id, action.get("doc"), true, null, null), action, action.get("doc"));
+            }
+            throw new Failure(404, "document_missing_exception", "[" + id + "]: document missing");
+        }
+
+        ObjectNode source = existing.source().deepCopy();
+        boolean changed;
+        if (action.has("script")) {
+            changed = runScript(action.get("script"), source);
+        } else {
+            if (action.get("doc") instanceof ObjectNode doc) {
+                merge(source, doc);
+            }
+            changed = !action.path("detect_noop").asBoolean(true) || !source.equals(existing.source());
+        }
+
+        if (!changed) {
+            return withSource(writeResult(index, id, existing.seqNo(), existing.version(), "noop"), action, existing.source());
+        }
+        Document stored = store(index, id, source, existing);
+        return withSource(writeResult(index, id, stored.seqNo(), stored.version(), "updated"), action, source);
+    }
+
+    private boolean runScript(JsonNode script, ObjectNode source) {
+        if (!script.has("id")) {
+            throw new UnsupportedOperationException("Only stored scripts are supported by the in-memory transport");
+        }
+        StoredScript stored = scripts.get(script.get("id").asText());
+        if (stored == null) {
+            throw new Failure(404, "resource_not_found_exception", "unable to find script [" + script.get("id").asText() + "] in cluster state");
+        }
+        return stored.apply(source, script.path("params"));
+    }
+
+    private void merge(ObjectNode target, ObjectNode changes) {
+        changes.fields().forEachRemaining(field -> {
+            if (field.getValue().isObject() && target.get(field.getKey()) instanceof ObjectNode nested) {
+                merge(nested, (ObjectNode) field.getValue());
+            } else {
+                target.set(field.getKey(), field.getValue().deepCopy());
+            }
+        });
+    }
+
+    // "_source": true (or includes/excludes) on an update returns the updated document under "get"
+    private ObjectNode withSource(ObjectNode result, JsonNode action, JsonNode source) {
+        JsonNode fetch = action.path("_source");
+        if (fetch.isObject() || fetch.asBoolean(false)) {
+            result.putObject("get")
+                    .put("found", true)
+                    .put("_seq_no", result.get("_seq_no").asLong())
+                    .put("_primary_term", PRIMARY_TERM)
+                    .set("_source", source.deepCopy());
+        }
+        return result;
+    }
+
+    private ObjectNode deleteDocument(String index, String id, Long ifSeqNo, Long ifPrimaryTerm) {
+        Document existing = documents(index).get(id);
+        checkVersion(id, existing, ifSeqNo, ifPrimaryTerm);
+        if (existing == null) {
+            return writeResult(index, id, seqNo++, 1, "not_found");
+        }
+        documents(index).remove(id);
+        return writeResult(index, id, seqNo++, existing.version() + 1, "deleted");
+    }
+
+    private ObjectNode bulk(BulkRequest request) {
+        ObjectNode body = json.createObjectNode()
+                .put("took", 0);
+        ArrayNode items = body.putArray("items");
+        boolean errors = false;
+
+        for (BulkOperation operation : request.operations()) {
+            String type = operation._kind().jsonValue();
+            String index;
+            String id;
+            ObjectNode item;
+            switch (operation._kind()) {
+                case Create -> {
+                    index = Objects.requireNonNullElse(operation.create().index(), request.index());
+                    id = operation.create().id();
+                }
+                case Index -> {
+                    index = Objects.requireNonNullElse(operation.index().index(), request.index());
+                    id = operation.index().id();
+                }
+                case Update -> {
+                    index = Objects.requireNonNullElse(operation.update().index(), request.index());
+                    id = operation.update().id();
+                }
+                case Delete -> {
+                    index = Objects.requireNonNullElse(operation.delete().index(), request.index());
+                    id = operation.delete().id();
+                }
+                default -> throw new UnsupportedOperationException("Bulk " + type + " is not supported by the in-memory transport");
+            }
+
+            try {
+                item = switch (operation._kind()) {
+                    case Create -> indexDocument(index, id, toNode(operation.create().document()), true, null, null);
+                    case Index -> indexDocument(index, id, toNode(operation.index().document()), false,
+                            operation.index().ifSeqNo(), operation.index().ifPrimaryTerm());
+                    case Update -> updateDocument(index, id, toNode(operation.update().action()));
+                    default -> deleteDocument(index, id, operation.delete().ifSeqNo(), operation.delete().ifPrimaryTerm());
+                };
+                item.put("status", switch (item.get("result").asText()) {
+                    case "created" -> 201;
+                    case "not_found" -> 404;
+                    default -> 200;
+                });
+            } catch (Failure e) {
+                errors = true;
+                item = json.createObjectNode()
+                        .put("_index", index)
+                        .put("_id", id)
+                        .put("status", e.status);
+                item.putObject("error")
+                        .put("type", e.type)
+                        .put("reason", e.getMessage());
+            }
+            items.addObject().set(type, item);
+        }
+        return body.put("errors", errors);
+    }
+
+    private ObjectNode createIndex(CreateIndexRequest request) {
+        if (indices.containsKey(request.index())) {
+            throw new Failure(400, "resource_already_exists_exception", "index [" + request.index() + "] already exists");
+        }
+        documents(request.index());
+        return json.createObjectNode()
+                .put("acknowledged", true)
+                .put("shards_acknowledged", true)
+                .put("index", request.index());
+    }
+
+    private ObjectNode openPointInTime(OpenPointInTimeRequest request) {
+        String id = Base64.getUrlEncoder().withoutPadding().encodeToString(UUID.randomUUID().toString().getBytes());
+        pointsInTime.put(id, List.copyOf(request.index()));
+        ObjectNode body = json.createObjectNode()
+                .put("id", id);
+        body.putObject("_shards")
+                .put("total", 1)
+                .put("successful", 1)
+                .put("failed", 0);
+        return body;
+    }
+
+    private ObjectNode closePointInTime(ClosePointInTimeRequest request) {
+        boolean freed = pointsInTime.remove(request.id()) != null;
+        return json.createObjectNode()
+                .put("succeeded", true)
+                .put("num_freed", freed ? 1 : 0);
+    }
+
+    private record SortKey(String field, boolean descending) {
+    }
+
+    private record Candidate(String index, String id, Document document, List<JsonNode> sort) {
+    }
+
+    private ObjectNode search(SearchRequest request) {
+        JsonNode body = toNode(request);
+
+        List<String> searched = request.index();
+        if (body.has("pit")) {
+            searched = pointsInTime.get(body.path("pit").path("id").asText());
+            if (searched == null) {
+                throw new Failure(404, "search_context_missing_exception", "No search context found for the point in time");
+            }
+        }
+        if (searched.isEmpty()) {
+            searched = List.copyOf(indices.keySet());
+        }
+
+        List<SortKey> sortKeys = sortKeys(body.path("sort"));
+        List<Candidate> candidates = new ArrayList<>();
+        for (String index : searched) {
+            documents(index).forEach((id, document) -> {
+                if (matches(body.path("query"), id, document.source())) {
+                    List<JsonNode> sort = sortKeys.stream()
+                            .map(key -> sortValue(key, document))
+                            .toList();
+                    candidates.add(new Candidate(index, id, document, sort));
+                }
+            });
+        }
+
+        Comparator<List<JsonNode>> order = (left, right) -> {
+            for (int i = 0; i < sortKeys.size(); i++) {
+                int result = compareValues(left.get(i), right.get(i), sortKeys.get(i).descending());
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+        candidates.sort((left, right) -> sortKeys.isEmpty()
+                ? Long.compare(left.document().shardDoc(), right.document().shardDoc())
+                : order.compare(left.sort(), right.sort()));
+
+        List<JsonNode> searchAfter = new ArrayList<>();
+        body.path("search_after").forEach(searchAfter::add);
+
+        ObjectNode response = json.createObjectNode()
+                .put("took", 0)
+                .put("timed_out", false);
+        response.putObject("_shards")
+                .put("total", 1)
+                .put("successful", 1)
+                .put("skipped", 0)
+                .put("failed", 0);
+        if (body.has("pit")) {
+            response.put("pit_id", body.path("pit").path("id").asText());
+        }
+
+        ObjectNode hitsMetadata = response.putObject("hits");
+        if (!body.path("track_total_hits").isBoolean() || body.path("track_total_hits").asBoolean()) {
+            hitsMetadata.putObject("total")
+                    .put("value", candidates.size())
+                    .put("relation", "eq");
+        }
+        hitsMetadata.put("max_score", 1.0);
+        ArrayNode hits = hitsMetadata.putArray("hits");
+
+        int from = body.path("from").asInt(0);
+        int size = body.path("size").asInt(10);
+        candidates.stream()
+                .filter(candidate -> searchAfter.isEmpty() || order.compare(candidate.sort(), searchAfter) > 0)
+                .skip(from)
+                .limit(size)
+                .forEach(candidate -> {
+                    ObjectNode hit = hits.addObject()
+                            .put("_index", candidate.index())
+                            .put("_id", candidate.id())
+                            .put("_score", 1.0);
+                    if (body.path("seq_no_primary_term").asBoolean()) {
+                        hit.put("_seq_no", candidate.document().seqNo())
+                                .put("_primary_term", PRIMARY_TERM);
+                    }
+                    hit.set("_source", candidate.document().source().deepCopy());
+                    if (!sortKeys.isEmpty()) {
+                        hit.putArray("sort").addAll(candidate.sort());
+                    }
+                });
+        return response;
+    }
+
+    // Sort entries come as "field", {"field": "desc"} or {"field": {"order": "desc"}}
+    private List<SortKey> sortKeys(JsonNode sort) {
+        List<SortKey> keys = new ArrayList<>();
+        List<JsonNode> entries = new ArrayList<>();
+        if (sort.isArray()) {
+            sort.forEach(entries::add);
+        } else if (!sort.isMissingNode()) {
+            entries.add(sort);
+        }
+
+        for (JsonNode entry : entries) {
+            if (entry.isTextual()) {
+                keys.add(new SortKey(entry.asText(), entry.asText().equals("_score")));
+                continue;
+            }
+            Map.Entry<String, JsonNode> field = entry.fields().next();
+            String order = field.getValue().isTextual() ? field.getValue().asText() : field.getValue().path("order").asText(null);
+            boolean descending = order == null ? field.getKey().equals("_score") : order.equalsIgnoreCase("desc");
+            keys.add(new SortKey(field.getKey(), descending));
+        }
+        return keys;
+    }
+
+    private JsonNode sortValue(SortKey key, Document document) {
+        return switch (key.field()) {
+            case "_score" -> json.getNodeFactory().numberNode(1.0);
+            case "_shard_doc", "_doc" -> json.getNodeFactory().numberNode(document.shardDoc());
+            default -> values(document.source(), key.field()).stream()
+                    .findFirst()
+                    .orElse(json.getNodeFactory().nullNode());
+        };
+    }
+
+    // Missing values sort last in both directions, like Elasticsearch's default "_last"
+    private int compareValues(JsonNode left, JsonNode right, boolean descending) {
+        boolean leftMissing = left == null || left.isNull();
+        boolean rightMissing = right == null || right.isNull();
+        if (leftMissing || rightMissing) {
+            return Boolean.compare(leftMissing, rightMissing);
+        }
+        int result = left.isNumber() && right.isNumber()
+                ? Double.compare(left.asDouble(), right.asDouble())
+                : left.asText().compareTo(right.asText());
+        return descending ? -result : result;
+    }
+
+    private boolean matches(JsonNode query, String id, ObjectNode source) {
+        if (query.isMissingNode() || query.isNull() || query.isEmpty()) {
+            return true;
+        }
+        Map.Entry<String, JsonNode> clause = query.fields().next();
+        JsonNode spec = clause.getValue();
+        return switch (clause.getKey()) {
+            case "match_all" -> true;
+            case "match_none" -> false;
+            case "ids" -> containsText(spec.path("values"), id);
+            case "bool" -> matchesBool(spec, id, source);
+            case "term" -> anyValue(spec, source, (value, term) -> sameValue(value, term.has("value") ? term.get("value") : term));
+            case "terms" -> anyValue(spec, source, (value, terms) -> {
+                for (JsonNode term : terms) {
+                    if (sameValue(value, term)) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+            case "range" -> anyValue(spec, source, this::inRange);
+            case "match" -> matchesText(spec, source);
+            case "fuzzy" -> anyValue(spec, source, (value, fuzzy) -> {
+                String term = (fuzzy.has("value") ? fuzzy.get("value") : fuzzy).asText().toLowerCase(Locale.ROOT);
+                int edits = maxEdits(fuzzy.path("fuzziness").asText("AUTO"), term);
+                return tokens(value.asText(), false).stream().anyMatch(token -> levenshtein(token, term) <= edits);
+            });
+            default -> throw new UnsupportedOperationException("Query " + clause.getKey() + " is not supported by the in-memory transport");
+        };
+    }
+
+    private boolean matchesBool(JsonNode bool, String id, ObjectNode source) {
+        for (String required : List.of("must", "filter")) {
+            for (JsonNode clause : clauses(bool.path(required))) {
+                if (!matches(clause, id, source)) {
+                    return false;
+                }
+            }
+        }
+        for (JsonNode clause : clauses(bool.path("must_not"))) {
+            if (matches(clause, id, source)) {
+                return false;
+            }
+        }
+
+        List<JsonNode> should = clauses(bool.path("should"));
+        int minimumShouldMatch = bool.has("minimum_should_match")
+                ? Integer.parseInt(bool.get("minimum_should_match").asText())
+                : bool.has("must") || bool.has("filter") || should.isEmpty() ? 0 : 1;
+        long matched = should.stream()
+                .filter(clause -> matches(clause, id, source))
+                .count();
+        return matched >= minimumShouldMatch;
+    }
+
+    private List<JsonNode> clauses(JsonNode node) {
+        List<JsonNode> clauses = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(clauses::add);
+        } else if (!node.isMissingNode()) {
+            clauses.add(node);
+        }
+        return clauses;
+    }
+
+    private interface ValueMatcher {
+
+        boolean matches(JsonNode value, JsonNode spec);
+    }
+
+    private boolean anyValue(JsonNode spec, ObjectNode source, ValueMatcher matcher) {
+        Map.Entry<String, JsonNode> field = spec.fields().next();
+        return values(source, field.getKey()).stream().anyMatch(value -> matcher.matches(value, field.getValue()));
+    }
+
+    // Dotted paths walk nested objects, a multi-field such as "name.ngram" falls back to its parent field
+    private List<JsonNode> values(ObjectNode source, String field) {
+        JsonNode node = source;
+        for (String part : field.split("\\.")) {
+            node = node.path(part);
+        }
+        if (node.isMissingNode() && field.contains(".")) {
+            return values(source, field.substring(0, field.lastIndexOf('.')));
+        }
+
+        List<JsonNode> values = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(values::add);
+        } else if (!node.isMissingNode() && !node.isNull()) {
+            values.add(node);
+        }
+        return values;
+    }
+
+    // Keyword fields use the lowercase normalizer, so terms compare case-insensitively
+    private boolean sameValue(JsonNode value, JsonNode term) {
+        if (value.isNumber() && term.isNumber()) {
+            return value.asDouble() == term.asDouble();
+        }
+        return value.asText().equalsIgnoreCase(term.asText());
+    }
+
+    private boolean containsText(JsonNode values, String text) {
+        for (JsonNode value : values) {
+            if (value.asText().equals(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean inRange(JsonNode value, JsonNode range) {
+        return within(value, range.get("gt"), result -> result > 0)
+                && within(value, range.get("gte"), result -> result >= 0)
+                && within(value, range.get("lt"), result -> result < 0)
+                && within(value, range.get("lte"), result -> result <= 0);
+    }
+
+    // An absent or null bound is always satisfied
+    private boolean within(JsonNode value, JsonNode limit, IntPredicate accepted) {
+        if (limit == null || limit.isNull()) {
+            return true;
+        }
+        return accepted.test(value.isNumber() || limit.isNumber()
+                ? Double.compare(value.asDouble(), limit.asDouble())
+                : value.asText().compareTo(limit.asText()));
+    }
+
+    private boolean matchesText(JsonNode spec, ObjectNode source) {
+        Map.Entry<String, JsonNode> field = spec.fields().next();
+        JsonNode match = field.getValue();
+        boolean all = match.path("operator").asText("or").equalsIgnoreCase("and");
+        // The ngram sub-field folds accents at index and search time (asciifolding)
+        boolean ngram = field.getKey().endsWith(".ngram");
+        List<String> queryTokens = tokens((match.isObject() ? match.path("query") : match).asText(), ngram);
+
+        List<String> fieldTokens = new ArrayList<>();
+        for (JsonNode value : values(source, field.getKey())) {
+            fieldTokens.addAll(tokens(value.asText(), ngram));
+        }
+
+        int matched = 0;
+        for (String queryToken : queryTokens) {
+            int edits = match.has("fuzziness") ? maxEdits(match.get("fuzziness").asText(), queryToken) : 0;
+            boolean found = fieldTokens.stream().anyMatch(token -> ngram
+                    ? token.contains(queryToken)
+                    : levenshtein(token, queryToken) <= edits);
+            if (found) {
+                matched++;
+            }
+        }
+        return all ? matched == queryTokens.size() && matched > 0 : matched > 0;
+    }
+
+    private List<String> tokens(String text, boolean fold) {
+        String normalized = fold ? Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "") : text;
+        return Arrays.stream(normalized.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private int maxEdits(String fuzziness, String term) {
+        if (fuzziness.toUpperCase(Locale.ROOT).startsWith("AUTO")) {
+            return term.length() <= 2 ? 0 : term.length() <= 5 ? 1 : 2;
+        }
+        return Integer.parseInt(fuzziness);
+    }
+
+    private int levenshtein(String left, String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+}
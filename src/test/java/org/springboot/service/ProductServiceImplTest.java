@@ -63,7 +63,7 @@ public class ProductServiceImplTest {
 
         productController.createProduct(product);
 
-        Product fetchedProduct = productController.getProductById(product.getEan()).getBody();
+        Product fetchedProduct = productController.getProductById(product.getEan()).block();
         assertNotNull(fetchedProduct);
 
         // GIVEN customer
@@ -94,7 +94,7 @@ public class ProductServiceImplTest {
         assertEquals(50.0, addedOrder.getTotalAmount());
 
         // THEN verify product sold/available values updated
-        Product updatedProduct = productController.getProductById(fetchedProduct.getEan()).getBody();
+        Product updatedProduct = productController.getProductById(fetchedProduct.getEan()).block();
         assertNotNull(updatedProduct);
         assertEquals(4, updatedProduct.getAvailable());
         assertEquals(1, updatedProduct.getSold());
@@ -113,7 +113,7 @@ public class ProductServiceImplTest {
 
         productController.createProduct(product);
 
-        Product fetchedProduct = productController.getProductById(product.getEan()).getBody();
+        Product fetchedProduct = productController.getProductById(product.getEan()).block();
         assertNotNull(fetchedProduct);
 
         // GIVEN customer
@@ -134,7 +134,7 @@ public class ProductServiceImplTest {
         assertNotNull(createdOrder);
 
         // Check values BEFORE deletion
-        Product beforeDelete = productController.getProductById(product.getEan()).getBody();
+        Product beforeDelete = productController.getProductById(product.getEan()).block();
         assertNotNull(beforeDelete);
         assertEquals(2, beforeDelete.getAvailable());
         assertEquals(1, beforeDelete.getSold());
@@ -148,7 +148,7 @@ public class ProductServiceImplTest {
         assertEquals(404, deletedOrderResponse.getStatusCode().value());
 
         // THEN product values should be reverted
-        Product afterDelete = productController.getProductById(product.getEan()).getBody();
+        Product afterDelete = productController.getProductById(product.getEan()).block();
         assertNotNull(afterDelete);
         assertEquals(3, afterDelete.getAvailable());
         assertEquals(0, afterDelete.getSold());
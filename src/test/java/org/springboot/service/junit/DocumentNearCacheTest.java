@@ -0,0 +1,174 @@
+package org.springboot.service.junit;
+
+import co.elastic.clients.elasticsearch._types.Result;
+import co.elastic.clients.elasticsearch.core.GetResponse;
+import co.elastic.clients.elasticsearch.core.IndexResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.model.Product;
+import org.springboot.service.DocumentNearCache;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentNearCacheTest {
+
+    private static final String INDEX = "products-002";
+    private static final String EAN = "1234567890123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private DocumentNearCache nearCache;
+
+    @BeforeEach
+    public void setUp() {
+        NearCacheProperties properties = new NearCacheProperties();
+        properties.setEnabled(true);
+        properties.getIndices().put(INDEX, new NearCacheProperties.IndexSettings());
+        nearCache = new DocumentNearCache(properties, objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testGet_ShouldServeRepeatedLookupsFromCacheAsCopies() {
+        // Act
+        Product first = nearCache.get(INDEX, EAN, Product.class, () -> found(5, 1));
+        first.setAvailable(0);
+        Product second = nearCache.get(INDEX, EAN, Product.class, () -> found(6, 1));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertEquals(5, second.getAvailable());
+    }
+
+    @Test
+    public void testGet_AfterLocalWrite_ShouldReload() {
+        // Arrange
+        nearCache.get(INDEX, EAN, Product.class, () -> found(5, 1));
+
+        // Act
+        nearCache.invalidate(written(6));
+        Product product = nearCache.get(INDEX, EAN, Product.class, () -> found(4, 6));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(4, product.getAvailable());
+    }
+
+    @Test
+    public void testGet_WhenWriteLandsDuringRead_ShouldNotCacheOlderVersion() {
+        // Act
+        nearCache.get(INDEX, EAN, Product.class, () -> {
+            GetResponse<ObjectNode> stale = found(5, 5);
+            nearCache.invalidate(written(6));
+            return stale;
+        });
+        Product product = nearCache.get(INDEX, EAN, Product.class, () -> found(4, 6));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(4, product.getAvailable());
+    }
+
+    @Test
+    public void testGet_WhenJoinedReadStartedBeforeWrite_ShouldReloadAndCacheNewVersion() {
+        // Arrange
+        nearCache.get(INDEX, EAN, Product.class, () -> found(5, 5));
+        nearCache.invalidate(written(6));
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        Product product = nearCache.get(INDEX, EAN, Product.class,
+                () -> calls.getAndIncrement() == 0 ? found(5, 5) : found(4, 6));
+        Product cached = nearCache.get(INDEX, EAN, Product.class, () -> found(3, 7));
+
+        // Assert
+        assertEquals(3, loads.get());
+        assertEquals(4, product.getAvailable());
+        assertEquals(4, cached.getAvailable());
+    }
+
+    @Test
+    public void testGet_WhenMissingReadStartedBeforeCreate_ShouldNotCacheTombstone() {
+        // Arrange
+        nearCache.invalidate(written(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        Product product = nearCache.get(INDEX, EAN, Product.class,
+                () -> calls.getAndIncrement() == 0 ? missing() : found(5, 1));
+        Product cached = nearCache.get(INDEX, EAN, Product.class, () -> found(4, 2));
+
+        // Assert
+        assertEquals(5, product.getAvailable());
+        assertEquals(5, cached.getAvailable());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGet_WhenMissingAfterLocalDelete_ShouldCacheTombstone() {
+        // Arrange
+        nearCache.get(INDEX, EAN, Product.class, () -> found(5, 1));
+        nearCache.invalidate(written(2));
+
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> nearCache.get(INDEX, EAN, Product.class, this::missing));
+        assertThrows(NoSuchElementException.class, () -> nearCache.get(INDEX, EAN, Product.class, this::missing));
+        assertTrue(nearCache.getAsync(INDEX, EAN, Product.class, () -> CompletableFuture.completedFuture(missing()))
+                .isCompletedExceptionally());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testGet_WhenMissing_ShouldCacheTombstone() {
+        // Act & Assert
+        assertThrows(NoSuchElementException.class, () -> nearCache.get(INDEX, EAN, Product.class, this::missing));
+        assertThrows(NoSuchElementException.class, () -> nearCache.get(INDEX, EAN, Product.class, this::missing));
+        assertEquals(1, loads.get());
+    }
+
+    private GetResponse<ObjectNode> found(int available, long seqNo) {
+        loads.incrementAndGet();
+        ObjectNode source = objectMapper.createObjectNode()
+                .put("ean", EAN)
+                .put("name", "Running shoes")
+                .put("available", available);
+        return GetResponse.of(g -> g
+                .index(INDEX)
+                .id(EAN)
+                .found(true)
+                .seqNo(seqNo)
+                .primaryTerm(1L)
+                .source(source));
+    }
+
+    private GetResponse<ObjectNode> missing() {
+        loads.incrementAndGet();
+        return GetResponse.of(g -> g
+                .index(INDEX)
+                .id(EAN)
+                .found(false));
+    }
+
+    private IndexResponse written(long seqNo) {
+        return IndexResponse.of(i -> i
+                .index(INDEX)
+                .id(EAN)
+                .result(Result.Updated)
+                .seqNo(seqNo)
+                .primaryTerm(1)
+                .version(seqNo)
+                .shards(s -> s
+                        .total(1)
+                        .successful(1)
+                        .failed(0)));
+    }
+}
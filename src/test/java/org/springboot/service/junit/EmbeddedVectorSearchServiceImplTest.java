@@ -0,0 +1,113 @@
+package org.springboot.service.junit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springboot.config.GetESClient;
+import org.springboot.config.properties.EmbeddedVectorProperties;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import org.springboot.service.DocumentNearCache;
+import org.springboot.service.ElasticsearchServiceImpl;
+import org.springboot.service.EmbeddedVectorSearchServiceImpl;
+import org.springboot.service.InMemoryElasticsearchTransport;
+import org.springboot.utility.AppConstants;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmbeddedVectorSearchServiceImplTest {
+
+    private static final int PRODUCTS = 20;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryElasticsearchTransport transport;
+    private EmbeddedVectorProperties properties;
+    private EmbeddedVectorSearchServiceImpl searchService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        transport = new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+        ElasticsearchClient client = new ElasticsearchClient(transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ElasticsearchServiceImpl elasticsearchService = new ElasticsearchServiceImpl(client, new ElasticsearchAsyncClient(transport),
+                new PaginationProperties(), new DocumentNearCache(new NearCacheProperties(), objectMapper, meterRegistry), objectMapper,
+                meterRegistry);
+
+        properties = new EmbeddedVectorProperties();
+        properties.setDirectory(directory.toString());
+        properties.setDimensions(2);
+        properties.setInitialCapacity(4);
+        searchService = new EmbeddedVectorSearchServiceImpl(properties, elasticsearchService);
+
+        // Product i points i * 4 degrees away from the query, only the five farthest ones are tools
+        List<Product> products = new ArrayList<>();
+        List<float[]> embeddings = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setEan(String.valueOf(1000 + i));
+            product.setName("Product " + i);
+            product.setPrice(10.0);
+            product.setCategory(i >= 15 ? "Tools" : "Garden");
+            product.setAvailable(1);
+            client.index(r -> r.index(AppConstants.INDEX_PRODUCTS).id(product.getEan()).document(product));
+            products.add(product);
+            double angle = Math.toRadians(i * 4);
+            embeddings.add(new float[]{(float) Math.cos(angle), (float) Math.sin(angle)});
+        }
+        searchService.upsertPoints(products, embeddings);
+        transport.resetRoundTrips();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        searchService.close();
+    }
+
+    @Test
+    public void testSearchByEmbedding_WithoutFilter_ShouldNotHydrateProducts() {
+        // Act
+        List<String> ids = searchService.searchByEmbedding(new float[]{1, 0}, 2, VectorFilter.NONE).block();
+
+        // Assert
+        assertEquals(List.of("1000", "1001"), ids);
+        assertEquals(0, transport.roundTrips());
+    }
+
+    @Test
+    public void testSearchByEmbedding_WithSelectiveFilter_ShouldWidenUntilTopKMatch() {
+        // Act
+        List<String> ids = searchService.searchByEmbedding(new float[]{1, 0}, 2, new VectorFilter("tools", null, null, null)).block();
+
+        // Assert
+        assertEquals(List.of("1015", "1016"), ids);
+        assertEquals(2, transport.roundTrips("mget"));
+    }
+
+    @Test
+    public void testSearchByEmbedding_AtMaxFilterCandidates_ShouldReturnMatchesFound() {
+        // Arrange
+        properties.setMaxFilterCandidates(16);
+
+        // Act
+        List<String> ids = searchService.searchByEmbedding(new float[]{1, 0}, 2, new VectorFilter("tools", null, null, null)).block();
+
+        // Assert
+        assertEquals(List.of("1015"), ids);
+        assertEquals(2, transport.roundTrips("mget"));
+    }
+}
@@ -0,0 +1,79 @@
+package org.springboot.service.junit;
+
+import org.junit.jupiter.api.Test;
+import org.springboot.config.properties.EmbeddingBatchProperties;
+import org.springboot.exception.DownstreamOverloadedException;
+import org.springboot.service.EmbeddingBatcher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmbeddingBatcherTest {
+
+    @Test
+    public void testSubmit_WhenBatchesAreBacklogged_ShouldFailFast() throws Exception {
+        // Arrange
+        EmbeddingBatchProperties properties = new EmbeddingBatchProperties();
+        properties.setMaxBatchSize(1);
+        properties.setMaxWait(Duration.ZERO);
+        properties.setMaxConcurrentBatches(1);
+        properties.setMaxQueuedBatches(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(texts -> {
+            await(release);
+            return texts.stream().map(text -> new float[]{text.length()}).toList();
+        }, properties)) {
+            CompletableFuture<float[]> running = batcher.submit("a");
+            CompletableFuture<float[]> queued = batcher.submit("bb");
+
+            // Act
+            CompletableFuture<float[]> rejected = batcher.submit("ccc");
+
+            // Assert
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(DownstreamOverloadedException.class, failure.getCause());
+            release.countDown();
+            assertArrayEquals(new float[]{1}, running.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{2}, queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testSubmit_ShouldSendConcurrentTextsAsOneBatch() throws Exception {
+        // Arrange
+        EmbeddingBatchProperties properties = new EmbeddingBatchProperties();
+        properties.setMaxWait(Duration.ofMillis(200));
+        properties.setMaxBatchSize(2);
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+        try (EmbeddingBatcher batcher = new EmbeddingBatcher(texts -> {
+            calls.add(texts);
+            return texts.stream().map(text -> new float[]{text.length()}).toList();
+        }, properties)) {
+            // Act
+            CompletableFuture<float[]> first = batcher.submit("a");
+            CompletableFuture<float[]> second = batcher.submit("bb");
+
+            // Assert
+            assertArrayEquals(new float[]{1}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new float[]{2}, second.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of("a", "bb")), calls);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package org.springboot.service.junit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.GetESClient;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.config.properties.SearchCacheProperties;
+import org.springboot.config.properties.VectorOutboxProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.exception.ProductNotFoundException;
+import org.springboot.model.CustomerInfo;
+import org.springboot.model.Order;
+import org.springboot.model.Product;
+import org.springboot.service.*;
+import org.springboot.utility.AppConstants;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderServiceImplTest {
+
+    private InMemoryElasticsearchTransport transport;
+    private ElasticsearchServiceImpl elasticsearchService;
+    private ProductServiceImpl productService;
+    private CustomerInfoServiceImpl customerService;
+    private OrderServiceImpl orderService;
+    private ProductSearchCache searchCache;
+    private ProductSearchCacheSync searchCacheSync;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+        ElasticsearchClient client = new ElasticsearchClient(transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        PaginationProperties paginationProperties = new PaginationProperties();
+
+        DocumentNearCache nearCache = new DocumentNearCache(new NearCacheProperties(), objectMapper, meterRegistry);
+        elasticsearchService = new ElasticsearchServiceImpl(client, new ElasticsearchAsyncClient(transport), paginationProperties,
+                nearCache, objectMapper, meterRegistry);
+        VectorOutboxServiceImpl vectorOutboxService = new VectorOutboxServiceImpl(client, elasticsearchService, null, null,
+                new VectorOutboxProperties(), paginationProperties);
+        SearchCacheProperties searchCacheProperties = new SearchCacheProperties();
+        searchCacheProperties.setBypassWindow(Duration.ZERO);
+        searchCache = new ProductSearchCache(searchCacheProperties, meterRegistry);
+        searchCacheSync = new ProductSearchCacheSync(client, searchCache);
+        productService = new ProductServiceImpl(client, vectorOutboxService, searchCache, nearCache);
+        customerService = new CustomerInfoServiceImpl(client, elasticsearchService, nearCache);
+        orderService = new OrderServiceImpl(client, productService, elasticsearchService, customerService, nearCache, meterRegistry);
+    }
+
+    @Test
+    public void testAddOrder_ShouldSellStockAndLinkCustomerInTwoRoundTrips() throws Exception {
+        // Arrange
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        Product socks = productService.addProduct(product("Socks", 5.0, 10));
+        CustomerInfo customer = customerService.saveCustomer(customer("john@example.com"));
+        transport.resetRoundTrips();
+
+        // Act
+        Order order = orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan(), socks.getEan(), socks.getEan()));
+
+        // Assert
+        assertEquals(60.0, order.getTotalAmount());
+        assertEquals(2, transport.roundTrips());
+        assertEquals(1, transport.roundTrips("bulk"));
+        assertEquals(1, transport.roundTrips("index"));
+        assertEquals(2, stored(shoes.getEan()).getAvailable());
+        assertEquals(8, stored(socks.getEan()).getAvailable());
+        assertEquals(2, stored(socks.getEan()).getSold());
+        assertEquals(List.of(order.getOrderId()), transport.document(AppConstants.INDEX_CUSTOMERS, customer.getCustomerId(), CustomerInfo.class)
+                .orElseThrow()
+                .getOrderIds());
+        assertTrue(transport.document(AppConstants.INDEX_ORDERS, order.getOrderId(), Order.class).isPresent());
+    }
+
+    @Test
+    public void testAddOrder_WithoutStock_ShouldRollBackReservedProducts() {
+        // Arrange
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        Product socks = productService.addProduct(product("Socks", 5.0, 0));
+        CustomerInfo customer = customerService.saveCustomer(customer("jane@example.com"));
+        transport.resetRoundTrips();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan(), socks.getEan())));
+        assertEquals(2, transport.roundTrips("bulk"));
+        assertEquals(0, transport.roundTrips("index"));
+        assertEquals(3, stored(shoes.getEan()).getAvailable());
+        assertEquals(0, stored(shoes.getEan()).getSold());
+        assertEquals(List.of(), transport.document(AppConstants.INDEX_CUSTOMERS, customer.getCustomerId(), CustomerInfo.class)
+                .orElseThrow()
+                .getOrderIds());
+    }
+
+    @Test
+    public void testAddOrder_UnknownProduct_ShouldThrowProductNotFound() {
+        // Arrange
+        CustomerInfo customer = customerService.saveCustomer(customer("jim@example.com"));
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> orderService.addOrder(customer.getCustomerId(), List.of("0000000000000")));
+    }
+
+    @Test
+    public void testDeleteOrderById_Twice_ShouldRestockOnce() throws Exception {
+        // Arrange
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        CustomerInfo customer = customerService.saveCustomer(customer("jack@example.com"));
+        Order order = orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan()));
+
+        // Act
+        boolean first = orderService.deleteOrderById(order.getOrderId());
+        boolean second = orderService.deleteOrderById(order.getOrderId());
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(3, stored(shoes.getEan()).getAvailable());
+    }
+
+    @Test
+    public void testDeleteOrderById_ShouldDeleteThenRestockInOneBulk() throws Exception {
+        // Arrange
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        CustomerInfo customer = customerService.saveCustomer(customer("joe@example.com"));
+        Order order = orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan(), shoes.getEan()));
+        transport.resetRoundTrips();
+
+        // Act
+        boolean deleted = orderService.deleteOrderById(order.getOrderId());
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(1, transport.roundTrips("get"));
+        assertEquals(1, transport.roundTrips("delete"));
+        assertEquals(1, transport.roundTrips("bulk"));
+        assertEquals(3, stored(shoes.getEan()).getAvailable());
+        assertEquals(0, stored(shoes.getEan()).getSold());
+        assertTrue(transport.document(AppConstants.INDEX_ORDERS, order.getOrderId(), Order.class).isEmpty());
+    }
+
+    @Test
+    public void testFindCustomerByEmail_ShouldMatchTermQuery() {
+        // Arrange
+        CustomerInfo customer = customerService.saveCustomer(customer("anna@example.com"));
+        customerService.saveCustomer(customer("other@example.com"));
+
+        // Act & Assert
+        assertEquals(customer.getCustomerId(), customerService.findCustomerByEmail("anna@example.com").orElseThrow().getCustomerId());
+        assertTrue(customerService.findCustomerByEmail("nobody@example.com").isEmpty());
+    }
+
+    @Test
+    public void testGetPage_ShouldWalkAllProductsWithPointInTimeCursor() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            productService.addProduct(product("Product " + i, 10.0 + i, 1));
+        }
+        transport.resetRoundTrips();
+
+        // Act
+        CursorPage<Product> first = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, null, 2, Product.class);
+        CursorPage<Product> second = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, first.nextCursor(), 2, Product.class);
+        CursorPage<Product> last = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, second.nextCursor(), 2, Product.class);
+
+        // Assert
+        assertEquals(List.of("Product 0", "Product 1", "Product 2", "Product 3", "Product 4"),
+                Stream.of(first, second, last)
+                        .flatMap(page -> page.items().stream())
+                        .map(Product::getName)
+                        .toList());
+        assertNull(last.nextCursor());
+        assertEquals(1, transport.roundTrips("open_point_in_time"));
+        assertEquals(3, transport.roundTrips("search"));
+    }
+
+    @Test
+    public void testGetPage_WhenFirstPageIsLast_ShouldClosePointInTime() {
+        // Arrange
+        productService.addProduct(product("Product 0", 10.0, 1));
+        transport.resetRoundTrips();
+
+        // Act
+        CursorPage<Product> only = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, null, 2, Product.class);
+
+        // Assert
+        assertEquals(1, only.items().size());
+        assertNull(only.nextCursor());
+        assertEquals(1, transport.roundTrips("open_point_in_time"));
+        assertEquals(1, transport.roundTrips("close_point_in_time"));
+    }
+
+    @Test
+    public void testSearchPage_WithCursorOfAnotherSearch_ShouldReject() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            productService.addProduct(product("Product " + i, 10.0 + i, 1));
+        }
+        CursorPage<Product> first = elasticsearchService.getPage(AppConstants.INDEX_PRODUCTS, null, 2, Product.class);
+        Query query = Query.of(q -> q.range(r -> r.field("price").gte(JsonData.of(11.0))));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> elasticsearchService.searchPage(AppConstants.INDEX_PRODUCTS, query, first.nextCursor(), 2, Product.class));
+    }
+
+    @Test
+    public void testAddOrder_WithInjectedLatency_ShouldWaitOncePerRoundTrip() throws Exception {
+        // Arrange
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        CustomerInfo customer = customerService.saveCustomer(customer("jack@example.com"));
+        transport.setLatency(Duration.ofMillis(50));
+
+        // Act
+        long start = System.nanoTime();
+        orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan()));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert
+        assertTrue(elapsed.compareTo(Duration.ofMillis(100)) >= 0, "Two round trips should take at least 100ms, took " + elapsed);
+    }
+
+    @Test
+    public void testAddOrder_ShouldKeepCachedSearches() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        ProductSearchCache.CachedSearch<String> search = searchCache.create("category", (category, size) -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new CursorPage<>(List.of(), null));
+        });
+        Product shoes = productService.addProduct(product("Shoes", 50.0, 3));
+        CustomerInfo customer = customerService.saveCustomer(customer("jane@example.com"));
+        searchCacheSync.poll();
+        search.get("shoes", 10).join();
+
+        // Act
+        orderService.addOrder(customer.getCustomerId(), List.of(shoes.getEan()));
+        searchCacheSync.poll();
+        search.get("shoes", 10).join();
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testAddProduct_ByAnotherInstance_ShouldRetireCachedSearches() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        ProductSearchCache.CachedSearch<String> search = searchCache.create("category", (category, size) -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new CursorPage<>(List.of(), null));
+        });
+        ProductServiceImpl otherInstance = new ProductServiceImpl(new ElasticsearchClient(transport),
+                new VectorOutboxServiceImpl(new ElasticsearchClient(transport), elasticsearchService, null, null,
+                        new VectorOutboxProperties(), new PaginationProperties()),
+                new ProductSearchCache(new SearchCacheProperties(), new SimpleMeterRegistry()),
+                new DocumentNearCache(new NearCacheProperties(), new ObjectMapper(), new SimpleMeterRegistry()));
+        searchCacheSync.poll();
+        search.get("shoes", 10).join();
+
+        // Act
+        otherInstance.addProduct(product("Shoes", 50.0, 3));
+        searchCacheSync.poll();
+        search.get("shoes", 10).join();
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    private Product stored(String ean) {
+        return transport.document(AppConstants.INDEX_PRODUCTS, ean, Product.class).orElseThrow();
+    }
+
+    private static Product product(String name, double price, int available) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(price);
+        product.setCategory("clothing");
+        product.setAvailable(available);
+        return product;
+    }
+
+    private static CustomerInfo customer(String email) {
+        return CustomerInfo.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .password("secret")
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.springboot.service.junit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.GetESClient;
+import org.springboot.config.properties.*;
+import org.springboot.dto.BulkItemResult;
+import org.springboot.model.Product;
+import org.springboot.service.*;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductIngestServiceImplTest {
+
+    private InMemoryElasticsearchTransport transport;
+    private BulkIngestProperties properties;
+    private ObjectMapper objectMapper;
+    private ProductIngestServiceImpl ingestService;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+        ElasticsearchClient client = new ElasticsearchClient(transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper();
+        PaginationProperties paginationProperties = new PaginationProperties();
+
+        DocumentNearCache nearCache = new DocumentNearCache(new NearCacheProperties(), objectMapper, meterRegistry);
+        ElasticsearchServiceImpl elasticsearchService = new ElasticsearchServiceImpl(client, new ElasticsearchAsyncClient(transport),
+                paginationProperties, nearCache, objectMapper, meterRegistry);
+        VectorOutboxServiceImpl vectorOutboxService = new VectorOutboxServiceImpl(client, elasticsearchService, null, null,
+                new VectorOutboxProperties(), paginationProperties);
+        properties = new BulkIngestProperties();
+        ingestService = new ProductIngestServiceImpl(client, vectorOutboxService, properties, objectMapper,
+                new ProductSearchCache(new SearchCacheProperties(), meterRegistry), nearCache);
+    }
+
+    @Test
+    public void testIngestProducts_ShouldCountOutboxEntriesAgainstMaxActions() {
+        // Arrange
+        properties.setMaxActions(5);
+
+        // Act
+        List<BulkItemResult> results = ingestService.ingestProducts(products(5));
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals(3, transport.roundTrips("bulk"));
+    }
+
+    @Test
+    public void testIngestProducts_ShouldCountOutboxEntriesAgainstMaxBytes() throws Exception {
+        // Arrange
+        Product sample = product(0);
+        sample.setEan("0000000000000");
+        long productBytes = objectMapper.writeValueAsBytes(sample).length;
+        properties.setMaxBytes(2 * productBytes + 10);
+
+        // Act
+        List<BulkItemResult> results = ingestService.ingestProducts(products(3));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(3, transport.roundTrips("bulk"));
+    }
+
+    private List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(this::product)
+                .toList();
+    }
+
+    private Product product(int i) {
+        Product product = new Product();
+        product.setName("Product " + i);
+        product.setPrice(10.0);
+        product.setCategory("Garden");
+        product.setAvailable(1);
+        return product;
+    }
+}
@@ -0,0 +1,103 @@
+package org.springboot.service.junit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.properties.SearchCacheProperties;
+import org.springboot.dto.CursorPage;
+import org.springboot.model.Product;
+import org.springboot.service.ProductSearchCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ProductSearchCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SearchCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new SearchCacheProperties();
+        properties.setBypassWindow(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testGet_WithSameParameters_ShouldLoadOnce() {
+        // Arrange
+        ProductSearchCache.CachedSearch<String> search = new ProductSearchCache(properties, meterRegistry).create("category", this::load);
+
+        // Act
+        CursorPage<Product> first = search.get("shoes", 10).join();
+        CursorPage<Product> second = search.get("shoes", 10).join();
+        search.get("shoes", 20).join();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("endpoint", "category", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testGet_AfterInvalidate_ShouldLoadAgain() {
+        // Arrange
+        ProductSearchCache cache = new ProductSearchCache(properties, meterRegistry);
+        ProductSearchCache.CachedSearch<String> search = cache.create("category", this::load);
+        search.get("shoes", 10).join();
+
+        // Act
+        cache.invalidate();
+        search.get("shoes", 10).join();
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGet_AfterCatalogVersionChanged_ShouldLoadAgain() {
+        // Arrange
+        ProductSearchCache cache = new ProductSearchCache(properties, meterRegistry);
+        ProductSearchCache.CachedSearch<String> search = cache.create("category", this::load);
+        cache.observeCatalogVersion(5);
+        search.get("shoes", 10).join();
+
+        // Act
+        cache.observeCatalogVersion(5);
+        search.get("shoes", 10).join();
+        cache.observeCatalogVersion(7);
+        search.get("shoes", 10).join();
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGet_WithinBypassWindow_ShouldNotCacheResult() {
+        // Arrange
+        properties.setBypassWindow(Duration.ofMinutes(1));
+        ProductSearchCache cache = new ProductSearchCache(properties, meterRegistry);
+        ProductSearchCache.CachedSearch<String> search = cache.create("category", this::load);
+        cache.invalidate();
+
+        // Act
+        search.get("shoes", 10).join();
+        search.get("shoes", 10).join();
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(2.0, meterRegistry.get("product.search.cache.bypassed").counter().count());
+    }
+
+    private CompletableFuture<CursorPage<Product>> load(String category, Integer size) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(new CursorPage<>(List.of(), null));
+    }
+}
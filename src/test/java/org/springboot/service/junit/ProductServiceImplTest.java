@@ -1,11 +1,22 @@
 package org.springboot.service.junit;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springboot.exception.ProductNotFoundException;
-import org.springboot.model.Product;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.config.properties.SearchCacheProperties;
+import org.springboot.service.DocumentNearCache;
+import org.springboot.service.ProductSearchCache;
 import org.springboot.service.ProductServiceImpl;
+import org.springboot.service.VectorOutboxService;
+import org.springboot.utility.AppConstants;
 import org.springframework.context.annotation.Profile;
 
 import java.util.List;
@@ -14,53 +25,64 @@ import static org.mockito.Mockito.*;
 @Profile("test")
 public class ProductServiceImplTest {
 
+    private ElasticsearchClient client;
     private ProductServiceImpl productService;
     private ProductServiceImpl productServiceSpy;
 
     @BeforeEach
     public void setUp() {
-        productService = new ProductServiceImpl(null, null,null,null);
+        client = Mockito.mock(ElasticsearchClient.class);
+        VectorOutboxService vectorOutboxService = Mockito.mock(VectorOutboxService.class);
+        when(vectorOutboxService.enqueueOperation(anyString(), any())).thenAnswer(invocation -> BulkOperation.of(b -> b
+                .delete(d -> d
+                        .index(AppConstants.INDEX_VECTOR_OUTBOX)
+                        .id(invocation.getArgument(0)))));
+        ProductSearchCache searchCache = new ProductSearchCache(new SearchCacheProperties(), new SimpleMeterRegistry());
+        DocumentNearCache nearCache = new DocumentNearCache(new NearCacheProperties(), new ObjectMapper(), new SimpleMeterRegistry());
+        productService = new ProductServiceImpl(client, vectorOutboxService, searchCache, nearCache);
         productServiceSpy = Mockito.spy(productService);
     }
 
     @Test
-    public void testUpdateProductsAfterOrderDeletion_ShouldUpdateProductsCorrectly() throws Exception {
+    public void testUpdateProductsAfterOrderDeletion_ShouldRestockGroupedEansInOneBulk() throws Exception {
         // Arrange
-        Product product = new Product();
-        product.setEan("1234567890123");
-        product.setAvailable(2);
-        product.setSold(5);
+        List<String> productEans = List.of("1234567890123", "4000000000006", "1234567890123");
 
-        List<Product> products = List.of(product);
-
-        doReturn(product).when(productServiceSpy).updateProduct(anyString(), any(Product.class));
+        when(client.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(b -> b
+                .errors(false)
+                .took(1)
+                .items(List.of())));
 
         // Act
-        productServiceSpy.updateProductsAfterOrderDeletion(products);
+        productServiceSpy.updateProductsAfterOrderDeletion(productEans);
 
         // Assert
-        assert product.getAvailable() == 3;
-        assert product.getSold() == 4;
-
-        verify(productServiceSpy, times(1)).updateProduct("1234567890123", product);
+        verify(productServiceSpy, times(1)).restockOperation("1234567890123", 2);
+        verify(productServiceSpy, times(1)).restockOperation("4000000000006", 1);
+        verify(client, times(1)).bulk(any(BulkRequest.class));
     }
 
     @Test
     public void testUpdateProductsAfterOrderDeletion_WhenProductNotFound_ShouldThrowException() throws Exception {
         // Arrange
-        Product product = new Product();
-        product.setEan("9999999999999");
-        product.setAvailable(1);
-        product.setSold(1);
-
-        List<Product> products = List.of(product);
+        List<String> productEans = List.of("9999999999999");
 
         // Simuluj výnimku
-        doThrow(new ProductNotFoundException("Not found")).when(productServiceSpy).updateProduct(anyString(), any(Product.class));
+        when(client.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(b -> b
+                .errors(true)
+                .took(1)
+                .items(i -> i
+                        .operationType(OperationType.Update)
+                        .index(AppConstants.INDEX_PRODUCTS)
+                        .id("9999999999999")
+                        .status(404)
+                        .error(e -> e
+                                .type("document_missing_exception")
+                                .reason("document missing")))));
 
         // Act & Assert
         try {
-            productServiceSpy.updateProductsAfterOrderDeletion(products);
+            productServiceSpy.updateProductsAfterOrderDeletion(productEans);
             assert false : "Expected RuntimeException was not thrown";
         } catch (RuntimeException e) {
             assert e.getMessage().contains("Product with EAN 9999999999999 not found");
@@ -0,0 +1,213 @@
+package org.springboot.service.junit;
+
+import io.grpc.ManagedChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.QdrantGrpcClient;
+import io.qdrant.client.grpc.Points.*;
+import io.qdrant.client.grpc.PointsGrpc;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.properties.DownstreamLimitProperties;
+import org.springboot.config.properties.QdrantProperties;
+import org.springboot.dto.VectorFilter;
+import org.springboot.exception.DownstreamOverloadedException;
+import org.springboot.model.Product;
+import org.springboot.service.DownstreamLimiters;
+import org.springboot.service.QdrantGrpcSearchServiceImpl;
+import org.springboot.utility.AppConstants;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QdrantGrpcSearchServiceImplTest {
+
+    private final List<UpsertPoints> upserts = new CopyOnWriteArrayList<>();
+    private final List<DeletePoints> deletes = new CopyOnWriteArrayList<>();
+    private final List<SearchPoints> searches = new CopyOnWriteArrayList<>();
+    private final List<UpdateBatchPoints> batches = new CopyOnWriteArrayList<>();
+
+    private Server server;
+    private QdrantClient qdrantClient;
+    private QdrantProperties properties;
+    private QdrantGrpcSearchServiceImpl qdrantService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new FakePointsService())
+                .build()
+                .start();
+        ManagedChannel channel = InProcessChannelBuilder.forName(name)
+                .directExecutor()
+                .build();
+        qdrantClient = new QdrantClient(QdrantGrpcClient.newBuilder(channel, true, false).build());
+
+        properties = new QdrantProperties();
+        properties.setCollectionName("products");
+        qdrantService = new QdrantGrpcSearchServiceImpl(qdrantClient, properties,
+                new DownstreamLimiters(new DownstreamLimitProperties(), new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        qdrantClient.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testUpsertPoints_ShouldSendAllPointsInOneRequest() {
+        // Arrange
+        Product first = product("1234567890123", "Red shoes");
+        Product second = product("4000000000006", "Blue shirt");
+
+        // Act
+        qdrantService.upsertPoints(List.of(first, second), List.of(new float[1536], new float[1536]));
+
+        // Assert
+        assertEquals(1, upserts.size());
+        UpsertPoints request = upserts.get(0);
+        assertEquals("products", request.getCollectionName());
+        assertEquals(2, request.getPointsCount());
+        assertEquals(1234567890123L, request.getPoints(0).getId().getNum());
+        assertEquals("Blue shirt", request.getPoints(1).getPayloadMap().get("text").getStringValue());
+    }
+
+    @Test
+    public void testSearchByEmbedding_ShouldReturnIdsInScoreOrder() {
+        // Act
+        List<String> eans = qdrantService.searchByEmbedding(new float[1536], 10, VectorFilter.NONE).block();
+
+        // Assert
+        assertEquals(List.of("4000000000006", "1234567890123"), eans);
+        assertEquals(1536, searches.get(0).getVectorCount());
+        assertEquals(10, searches.get(0).getLimit());
+        assertFalse(searches.get(0).hasFilter());
+    }
+
+    @Test
+    public void testSearchByEmbedding_WithFilter_ShouldSendPayloadConditions() {
+        // Arrange
+        VectorFilter filter = new VectorFilter("Shoes", null, 50.0, true);
+
+        // Act
+        qdrantService.searchByEmbedding(new float[1536], 10, filter).block();
+
+        // Assert
+        List<Condition> conditions = searches.get(0).getFilter().getMustList();
+        assertEquals(3, conditions.size());
+        assertEquals("category", conditions.get(0).getField().getKey());
+        assertEquals("shoes", conditions.get(0).getField().getMatch().getKeyword());
+        assertEquals(50.0, conditions.get(1).getField().getRange().getLte());
+        assertFalse(conditions.get(1).getField().getRange().hasGte());
+        assertEquals(0.0, conditions.get(2).getField().getRange().getGt());
+    }
+
+    @Test
+    public void testSetPayloads_ShouldUpdatePriceAndStockWithoutVectors() {
+        // Arrange
+        Product product = product("1234567890123", "Red shoes");
+        product.setPrice(39.9);
+        product.setAvailable(0);
+
+        // Act
+        qdrantService.setPayloads(List.of(product));
+
+        // Assert
+        assertEquals(1, batches.size());
+        PointsUpdateOperation.SetPayload setPayload = batches.get(0).getOperations(0).getSetPayload();
+        assertEquals(39.9, setPayload.getPayloadMap().get("price").getDoubleValue());
+        assertEquals(0, setPayload.getPayloadMap().get("available").getIntegerValue());
+        assertEquals(id(1234567890123L), setPayload.getPointsSelector().getFilter().getMust(0).getHasId().getHasId(0));
+    }
+
+    @Test
+    public void testDeletePoints_ShouldSendNumericIds() {
+        // Act
+        qdrantService.deletePoints(List.of("1234567890123"));
+
+        // Assert
+        assertEquals(1, deletes.size());
+        assertEquals(List.of(id(1234567890123L)), deletes.get(0).getPoints().getPoints().getIdsList());
+    }
+
+    @Test
+    public void testUpsertPoints_WhenQdrantIsAtItsLimit_ShouldRejectWithoutSending() {
+        // Arrange
+        DownstreamLimitProperties.Limit limit = new DownstreamLimitProperties.Limit();
+        limit.setInitialLimit(1);
+        limit.setMaxQueue(0);
+        DownstreamLimitProperties limitProperties = new DownstreamLimitProperties();
+        limitProperties.getLimits().put(AppConstants.DOWNSTREAM_QDRANT, limit);
+        DownstreamLimiters limiters = new DownstreamLimiters(limitProperties, new SimpleMeterRegistry());
+        QdrantGrpcSearchServiceImpl limitedService = new QdrantGrpcSearchServiceImpl(qdrantClient, properties, limiters);
+        limiters.limiter(AppConstants.DOWNSTREAM_QDRANT).acquire();
+
+        // Act & Assert
+        assertThrows(DownstreamOverloadedException.class,
+                () -> limitedService.upsertPoints(List.of(product("1234567890123", "Red shoes")), List.of(new float[1536])));
+        assertEquals(0, upserts.size());
+    }
+
+    private Product product(String ean, String description) {
+        Product product = new Product();
+        product.setEan(ean);
+        product.setName("Product " + ean);
+        product.setDescription(description);
+        return product;
+    }
+
+    private class FakePointsService extends PointsGrpc.PointsImplBase {
+
+        @Override
+        public void upsert(UpsertPoints request, StreamObserver<PointsOperationResponse> responseObserver) {
+            upserts.add(request);
+            completed(responseObserver);
+        }
+
+        @Override
+        public void delete(DeletePoints request, StreamObserver<PointsOperationResponse> responseObserver) {
+            deletes.add(request);
+            completed(responseObserver);
+        }
+
+        @Override
+        public void updateBatch(UpdateBatchPoints request, StreamObserver<UpdateBatchResponse> responseObserver) {
+            batches.add(request);
+            responseObserver.onNext(UpdateBatchResponse.newBuilder()
+                    .addResult(UpdateResult.newBuilder().setStatus(UpdateStatus.Completed))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void search(SearchPoints request, StreamObserver<SearchResponse> responseObserver) {
+            searches.add(request);
+            responseObserver.onNext(SearchResponse.newBuilder()
+                    .addResult(ScoredPoint.newBuilder().setId(id(4000000000006L)).setScore(0.9f))
+                    .addResult(ScoredPoint.newBuilder().setId(id(1234567890123L)).setScore(0.7f))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        private void completed(StreamObserver<PointsOperationResponse> responseObserver) {
+            responseObserver.onNext(PointsOperationResponse.newBuilder()
+                    .setResult(UpdateResult.newBuilder().setStatus(UpdateStatus.Completed))
+                    .build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.springboot.service.junit;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.GetESClient;
+import org.springboot.config.properties.NearCacheProperties;
+import org.springboot.config.properties.PaginationProperties;
+import org.springboot.config.properties.VectorOutboxProperties;
+import org.springboot.dto.VectorFilter;
+import org.springboot.model.Product;
+import org.springboot.model.VectorOutboxEntry;
+import org.springboot.service.*;
+import org.springboot.utility.AppConstants;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VectorOutboxServiceImplTest {
+
+    private static final String POISON_EAN = "not-a-number";
+
+    private InMemoryElasticsearchTransport transport;
+    private ElasticsearchClient client;
+    private ElasticsearchServiceImpl elasticsearchService;
+    private EmbeddingService embeddingService;
+    private RecordingQdrantService qdrantService;
+    private VectorOutboxProperties properties;
+    private VectorOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new InMemoryElasticsearchTransport(GetESClient.jsonpMapper());
+        client = new ElasticsearchClient(transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper();
+        elasticsearchService = new ElasticsearchServiceImpl(client, new ElasticsearchAsyncClient(transport), new PaginationProperties(),
+                new DocumentNearCache(new NearCacheProperties(), objectMapper, meterRegistry), objectMapper, meterRegistry);
+
+        embeddingService = mock(EmbeddingService.class);
+        when(embeddingService.generateEmbeddings(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            return texts.stream().map(text -> new float[]{1f}).toList();
+        });
+        qdrantService = new RecordingQdrantService();
+        properties = new VectorOutboxProperties();
+        properties.setInitialBackoff(Duration.ZERO);
+        outboxService = outboxService();
+    }
+
+    @Test
+    public void testProcessPending_WithPoisonEntry_ShouldSyncTheRestAndRetryOnlyThePoison() {
+        // Arrange
+        List<String> eans = List.of("4006381333931", "4006381333948", POISON_EAN, "4006381333955", "4006381333962");
+        eans.forEach(this::pending);
+
+        // Act
+        int synced = outboxService.processPending();
+
+        // Assert
+        assertEquals(4, synced);
+        assertEquals(Set.of("4006381333931", "4006381333948", "4006381333955", "4006381333962"), qdrantService.upserted);
+        eans.stream()
+                .filter(ean -> !ean.equals(POISON_EAN))
+                .forEach(ean -> assertTrue(outboxEntry(ean).isEmpty()));
+        VectorOutboxEntry poison = outboxEntry(POISON_EAN).orElseThrow();
+        assertEquals(1, poison.getAttempts());
+        assertNull(poison.getParkedAt());
+    }
+
+    @Test
+    public void testProcessPending_AfterMaxAttempts_ShouldParkEntry() {
+        // Arrange
+        properties.setMaxAttempts(2);
+        pending(POISON_EAN);
+
+        // Act
+        outboxService.processPending();
+        outboxService.processPending();
+        int callsWhenParked = qdrantService.calls;
+        int synced = outboxService.processPending();
+
+        // Assert
+        assertEquals(0, synced);
+        assertEquals(callsWhenParked, qdrantService.calls);
+        VectorOutboxEntry parked = outboxEntry(POISON_EAN).orElseThrow();
+        assertEquals(2, parked.getAttempts());
+        assertNotNull(parked.getParkedAt());
+    }
+
+    @Test
+    public void testProcessPending_WhileBatchIsClaimed_ShouldNotHandItToAnotherInstance() {
+        // Arrange
+        pending("4006381333931");
+        pending("4006381333948");
+        VectorOutboxServiceImpl otherInstance = outboxService();
+        List<Integer> syncedByOther = new ArrayList<>();
+        qdrantService.duringUpsert = () -> syncedByOther.add(otherInstance.processPending());
+
+        // Act
+        int synced = outboxService.processPending();
+
+        // Assert
+        assertEquals(2, synced);
+        assertEquals(List.of(0), syncedByOther);
+        assertEquals(1, qdrantService.calls);
+    }
+
+    private VectorOutboxServiceImpl outboxService() {
+        return new VectorOutboxServiceImpl(client, elasticsearchService, embeddingService, qdrantService, properties,
+                new PaginationProperties());
+    }
+
+    private void pending(String ean) {
+        Product product = new Product();
+        product.setEan(ean);
+        product.setName("Product " + ean);
+        product.setDescription("Outbox test product");
+        transport.putDocument(AppConstants.INDEX_PRODUCTS, ean, product);
+        transport.putDocument(AppConstants.INDEX_VECTOR_OUTBOX, ean, VectorOutboxEntry.builder()
+                .ean(ean)
+                .op(VectorOutboxEntry.Operation.UPSERT)
+                .enqueuedAt(System.currentTimeMillis())
+                .nextAttemptAt(0)
+                .touchedAt(0)
+                .build());
+    }
+
+    private Optional<VectorOutboxEntry> outboxEntry(String ean) {
+        return transport.document(AppConstants.INDEX_VECTOR_OUTBOX, ean, VectorOutboxEntry.class);
+    }
+
+    // Point ids are numeric EANs in Qdrant, so a non-numeric EAN fails the whole request like the real client does
+    private static class RecordingQdrantService implements QdrantSearchService {
+
+        private final Set<String> upserted = new HashSet<>();
+        private int calls;
+        private Runnable duringUpsert = () -> {
+        };
+
+        @Override
+        public void upsertPoints(List<Product> products, List<float[]> embeddings) {
+            calls++;
+            duringUpsert.run();
+            products.forEach(product -> Long.parseLong(product.getEan()));
+            products.forEach(product -> upserted.add(product.getEan()));
+        }
+
+        @Override
+        public void deletePoints(Collection<String> eans) {
+            calls++;
+        }
+
+        @Override
+        public void setPayloads(List<Product> products) {
+            calls++;
+        }
+
+        @Override
+        public Mono<Map<String, Object>> searchSimilarProducts(float[] vector, int limit) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<List<String>> searchByEmbedding(float[] embedding, int topK, VectorFilter filter) {
+            return Mono.empty();
+        }
+    }
+}
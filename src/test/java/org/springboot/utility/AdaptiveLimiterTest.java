@@ -0,0 +1,150 @@
+package org.springboot.utility;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springboot.config.properties.DownstreamLimitProperties;
+import org.springboot.exception.DownstreamOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveLimiterTest {
+
+    private DownstreamLimitProperties.Limit settings;
+
+    @BeforeEach
+    public void setUp() {
+        settings = new DownstreamLimitProperties.Limit();
+        settings.setInitialLimit(2);
+        settings.setMaxQueue(0);
+        settings.setBackoffRatio(0.5);
+        settings.setSlowCallThreshold(Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void testTryAcquire_AtLimit_ShouldReject() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // Act
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+
+        // Assert
+        assertNull(permit);
+        assertEquals(1, limiter.rejectedCount());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void testAcquire_AtLimitWithFullQueue_ShouldThrowOverloaded() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+        limiter.acquire();
+        limiter.acquire();
+
+        // Act & Assert
+        assertThrows(DownstreamOverloadedException.class, limiter::acquire);
+    }
+
+    @Test
+    public void testRelease_WhenDropped_ShouldHalveLimit() {
+        // Arrange
+        settings.setInitialLimit(10);
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+
+        // Act
+        limiter.acquire().dropped();
+
+        // Assert
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testRelease_WhenSlow_ShouldDecreaseLimit() {
+        // Arrange
+        settings.setInitialLimit(10);
+        settings.setSlowCallThreshold(Duration.ZERO);
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+
+        // Act
+        limiter.acquire().success();
+
+        // Assert
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void testCancelled_AfterSlowCallThreshold_ShouldDecreaseLimit() {
+        // Arrange
+        settings.setInitialLimit(10);
+        settings.setSlowCallThreshold(Duration.ZERO);
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+
+        // Act
+        limiter.acquire().cancelled();
+
+        // Assert
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testCancelled_BeforeSlowCallThreshold_ShouldKeepLimit() {
+        // Arrange
+        settings.setInitialLimit(10);
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+
+        // Act
+        limiter.acquire().cancelled();
+
+        // Assert
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testRelease_WhenSuccessfulAtLimit_ShouldIncreaseLimit() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+        AdaptiveLimiter.Permit first = limiter.acquire();
+        AdaptiveLimiter.Permit second = limiter.acquire();
+
+        // Act
+        second.success();
+        second.success();
+
+        // Assert
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+        first.ignore();
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void testAcquire_WhenPermitReleasedWhileQueued_ShouldGrantPermit() throws Exception {
+        // Arrange
+        settings.setInitialLimit(1);
+        settings.setMaxQueue(1);
+        settings.setMaxWait(Duration.ofSeconds(10));
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", settings);
+        AdaptiveLimiter.Permit held = limiter.acquire();
+
+        // Act
+        CompletableFuture<AdaptiveLimiter.Permit> queued = CompletableFuture.supplyAsync(limiter::acquire);
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        held.ignore();
+
+        // Assert
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+}
@@ -0,0 +1,170 @@
+package org.springboot.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSearch_ShouldMatchBruteForceRecall() throws Exception {
+        // Arrange
+        Random random = new Random(1);
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSIONS, 16, 100, 256)) {
+            for (int i = 0; i < 2000; i++) {
+                index.add(i, randomVector(random));
+            }
+
+            // Act
+            int found = 0;
+            for (int query = 0; query < 50; query++) {
+                float[] vector = randomVector(random);
+                Set<Long> expected = new HashSet<>();
+                index.exactSearch(vector, 10).forEach(result -> expected.add(result.id()));
+
+                for (HnswIndex.Result result : index.search(vector, 10, 100)) {
+                    if (expected.contains(result.id())) {
+                        found++;
+                    }
+                }
+            }
+
+            // Assert
+            assertTrue(found / 500.0 >= 0.95, "recall@10 was " + found / 500.0);
+        }
+    }
+
+    @Test
+    public void testOpen_ShouldRestorePersistedGraphAndDeletes() throws Exception {
+        // Arrange
+        Random random = new Random(2);
+        float[] kept = randomVector(random);
+        float[] removed = randomVector(random);
+
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSIONS, 8, 50, 4)) {
+            index.add(1234567890123L, kept);
+            index.add(4000000000006L, removed);
+            for (int i = 0; i < 100; i++) {
+                index.add(i, randomVector(random));
+            }
+            index.remove(4000000000006L);
+        }
+
+        // Act
+        try (HnswIndex reopened = HnswIndex.open(directory, DIMENSIONS, 8, 50, 4)) {
+            List<HnswIndex.Result> keptResults = reopened.search(kept, 1, 50);
+            List<HnswIndex.Result> removedResults = reopened.search(removed, 5, 50);
+
+            // Assert
+            assertEquals(101, reopened.size());
+            assertEquals(1234567890123L, keptResults.get(0).id());
+            assertTrue(removedResults.stream().noneMatch(result -> result.id() == 4000000000006L));
+        }
+    }
+
+    @Test
+    public void testAdd_WhenReplacingOrAfterRemove_ShouldReuseSlots() throws Exception {
+        // Arrange
+        Random random = new Random(4);
+        float[][] latest = new float[200][];
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSIONS, 8, 50, 256)) {
+            for (int i = 0; i < 200; i++) {
+                index.add(i, randomVector(random));
+            }
+            long vectorBytes = Files.size(directory.resolve("vectors.bin"));
+
+            // Act
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 200; i++) {
+                    latest[i] = randomVector(random);
+                    index.add(i, latest[i]);
+                }
+            }
+            for (int i = 0; i < 100; i++) {
+                index.remove(i);
+            }
+            for (int i = 100; i < 200; i++) {
+                index.add(1000 + i, latest[i]);
+            }
+            index.flush();
+
+            // Assert
+            assertEquals(vectorBytes, Files.size(directory.resolve("vectors.bin")));
+            assertEquals(200, index.size());
+            for (int i = 100; i < 200; i++) {
+                long id = index.search(latest[i], 1, 50).get(0).id();
+                assertTrue(id == i || id == 1000 + i, "nearest to vector " + i + " was " + id);
+            }
+        }
+    }
+
+    @Test
+    public void testOpen_AfterCrash_ShouldDropNodesAndLinksPastFlush() throws Exception {
+        // Arrange
+        Random random = new Random(5);
+        Path crashed = Files.createDirectory(directory.resolve("crashed"));
+        Path live = Files.createDirectory(directory.resolve("live"));
+        float[][] persisted = new float[100][];
+        try (HnswIndex index = HnswIndex.open(live, DIMENSIONS, 8, 50, 16)) {
+            for (int i = 0; i < 100; i++) {
+                persisted[i] = randomVector(random);
+                index.add(i, persisted[i]);
+            }
+            index.flush();
+            for (int i = 100; i < 200; i++) {
+                index.add(i, randomVector(random));
+            }
+            // Copying the files while the index is open keeps the unflushed pages but not the header, like a crash
+            try (var files = Files.list(live)) {
+                for (Path file : files.toList()) {
+                    Files.copy(file, crashed.resolve(file.getFileName()));
+                }
+            }
+        }
+
+        // Act
+        try (HnswIndex reopened = HnswIndex.open(crashed, DIMENSIONS, 8, 50, 16)) {
+            for (int i = 500; i < 600; i++) {
+                reopened.add(i, randomVector(random));
+            }
+
+            // Assert
+            assertEquals(200, reopened.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, reopened.search(persisted[i], 1, 50).get(0).id());
+            }
+        }
+    }
+
+    @Test
+    public void testOpen_ShouldRejectDifferentDimensions() throws Exception {
+        // Arrange
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSIONS, 8, 50, 4)) {
+            index.add(1, randomVector(new Random(3)));
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> HnswIndex.open(directory, DIMENSIONS * 2, 8, 50, 4));
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
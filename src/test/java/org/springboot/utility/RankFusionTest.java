@@ -0,0 +1,44 @@
+package org.springboot.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RankFusionTest {
+
+    @Test
+    public void testFuse_ShouldRankIdsFoundByBothListsFirst() {
+        // Arrange
+        List<String> lexical = List.of("A", "B", "C");
+        List<String> vector = List.of("C", "D", "A");
+
+        // Act
+        List<String> fused = RankFusion.fuse(List.of(lexical, vector), List.of(1.0, 1.0), 60, 10);
+
+        // Assert
+        assertEquals(List.of("A", "C", "B", "D"), fused);
+    }
+
+    @Test
+    public void testFuse_ShouldApplyWeightsAndLimit() {
+        // Arrange
+        List<String> lexical = List.of("A", "B");
+        List<String> vector = List.of("C", "D");
+
+        // Act
+        List<String> fused = RankFusion.fuse(List.of(lexical, vector), List.of(1.0, 2.0), 60, 3);
+
+        // Assert
+        assertEquals(List.of("C", "D", "A"), fused);
+    }
+
+    @Test
+    public void testFuse_ShouldRejectMismatchedWeights() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> RankFusion.fuse(List.of(List.of("A")), List.of(1.0, 1.0), 60, 10));
+    }
+}
@@ -0,0 +1,112 @@
+package org.springboot.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testExecute_WithConcurrentCallers_ShouldRunCallOnce() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // Act
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flight.execute("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "value";
+            })));
+            started.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> flight.execute("key", () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (flight.coalescedCount() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(7, flight.coalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_AfterCompletion_ShouldRunCallAgain() {
+        // Arrange
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        flight.execute("key", calls::incrementAndGet);
+        int second = flight.execute("key", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, second);
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    @Test
+    public void testExecute_WhenCallFails_ShouldRethrowAndFreeKey() {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            throw new IllegalStateException("backend down");
+        }));
+        assertEquals("value", flight.execute("key", () -> "value"));
+    }
+
+    @Test
+    public void testExecuteAsync_CancellingOneCaller_ShouldNotCancelSharedCall() {
+        // Arrange
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> backend = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> first = flight.executeAsync("key", () -> backend);
+        CompletableFuture<String> second = flight.executeAsync("key", () -> CompletableFuture.completedFuture("other"));
+        first.cancel(true);
+        backend.complete("value");
+
+        // Assert
+        assertFalse(backend.isCancelled());
+        assertEquals("value", second.join());
+        assertEquals(1, flight.coalescedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}